@@ -1,5 +1,6 @@
 package com.inmobiliaria.app.domain;
 
+import com.inmobiliaria.app.service.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -7,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "clients")
 public class Client {
 
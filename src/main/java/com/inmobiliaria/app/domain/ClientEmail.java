@@ -1,11 +1,13 @@
 package com.inmobiliaria.app.domain;
 
+import com.inmobiliaria.app.service.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "client_emails",
         indexes = @Index(name = "idx_client_emails_value", columnList = "email"))
 public class ClientEmail {
@@ -1,10 +1,12 @@
 package com.inmobiliaria.app.domain;
 
+import com.inmobiliaria.app.service.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "client_phones",
         uniqueConstraints = @UniqueConstraint(name = "uk_client_phone_number", columnNames = "phoneNumber"),
         indexes = @Index(name = "idx_client_phones_number", columnList = "phoneNumber"))
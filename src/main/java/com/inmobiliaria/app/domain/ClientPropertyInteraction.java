@@ -1,5 +1,6 @@
 package com.inmobiliaria.app.domain;
 
+import com.inmobiliaria.app.service.SearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -7,6 +8,7 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "client_property_interactions", indexes = {
         @Index(name = "idx_cpi_contact_date", columnList = "contact_date"),
         @Index(name = "idx_cpi_status",       columnList = "status")
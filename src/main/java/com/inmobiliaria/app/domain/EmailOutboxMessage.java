@@ -0,0 +1,66 @@
+package com.inmobiliaria.app.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo pendiente de envío. Se inserta en la transacción de la petición
+ * (consulta desde la web) y lo envía EmailOutbox; si el SMTP falla se
+ * reintenta más tarde en vez de perderse.
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = @Index(name = "idx_email_outbox_next", columnList = "next_attempt_at"))
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 255)
+    private String recipient;
+
+    @Column(nullable = false, length = 255)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public EmailOutboxMessage() {}
+
+    public EmailOutboxMessage(String recipient, String subject, String body) {
+        this.recipient = recipient;
+        this.subject   = subject;
+        this.body      = body;
+    }
+
+    // ── Getters & Setters ────────────────────────────────
+    public Long getId()                                   { return id; }
+    public String getRecipient()                          { return recipient; }
+    public String getSubject()                            { return subject; }
+    public String getBody()                               { return body; }
+
+    public int getAttempts()                              { return attempts; }
+    public void setAttempts(int attempts)                 { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt()               { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError()                          { return lastError; }
+    public void setLastError(String lastError)            { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt()                   { return createdAt; }
+}
@@ -0,0 +1,102 @@
+package com.inmobiliaria.app.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Consulta recibida desde la web pública (ficha de inmueble o formulario
+ * general). Se guarda tal cual llega; LeadService la asocia después a un
+ * cliente existente por teléfono o crea uno nuevo.
+ *
+ * El inmueble va como id + código sin FK: la consulta se conserva aunque
+ * el inmueble se borre.
+ */
+@Entity
+@Table(name = "leads", indexes = {
+        @Index(name = "idx_leads_matched_at", columnList = "matched_at"),
+        @Index(name = "idx_leads_client",     columnList = "client_id")
+})
+public class Lead {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // null = formulario general de la home
+    @Column(name = "property_id")
+    private Long propertyId;
+
+    @Column(name = "property_code", length = 60)
+    private String propertyCode;
+
+    @Column(name = "full_name", nullable = false, length = 140)
+    private String fullName;
+
+    @Column(nullable = false, length = 30)
+    private String phone;
+
+    @Column(length = 140)
+    private String email;
+
+    @Column(length = 200)
+    private String motivo;
+
+    @Column(length = 2000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // ── Resultado del emparejamiento ─────────────────────
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "client_id")
+    private Client client;
+
+    @Column(name = "client_created", nullable = false, columnDefinition = "boolean default false")
+    private boolean clientCreated = false;
+
+    @Column(name = "matched_at")
+    private LocalDateTime matchedAt;
+
+    @Column(name = "match_error", length = 500)
+    private String matchError;
+
+    // ── Getters & Setters ────────────────────────────────
+    public Long getId()                                   { return id; }
+
+    public Long getPropertyId()                           { return propertyId; }
+    public void setPropertyId(Long propertyId)            { this.propertyId = propertyId; }
+
+    public String getPropertyCode()                       { return propertyCode; }
+    public void setPropertyCode(String propertyCode)      { this.propertyCode = propertyCode; }
+
+    public String getFullName()                           { return fullName; }
+    public void setFullName(String fullName)              { this.fullName = fullName; }
+
+    public String getPhone()                              { return phone; }
+    public void setPhone(String phone)                    { this.phone = phone; }
+
+    public String getEmail()                              { return email; }
+    public void setEmail(String email)                    { this.email = email; }
+
+    public String getMotivo()                             { return motivo; }
+    public void setMotivo(String motivo)                  { this.motivo = motivo; }
+
+    public String getMessage()                            { return message; }
+    public void setMessage(String message)                { this.message = message; }
+
+    public LocalDateTime getCreatedAt()                   { return createdAt; }
+
+    public Client getClient()                             { return client; }
+    public void setClient(Client client)                  { this.client = client; }
+
+    public boolean isClientCreated()                      { return clientCreated; }
+    public void setClientCreated(boolean clientCreated)   { this.clientCreated = clientCreated; }
+
+    public LocalDateTime getMatchedAt()                   { return matchedAt; }
+    public void setMatchedAt(LocalDateTime matchedAt)     { this.matchedAt = matchedAt; }
+
+    public String getMatchError()                         { return matchError; }
+    public void setMatchError(String matchError)          { this.matchError = matchError; }
+}
@@ -0,0 +1,61 @@
+package com.inmobiliaria.app.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox de borrados en el almacén de medios. Se inserta en la misma
+ * transacción que borra el PropertyMedia; un worker lo destruye en remoto
+ * después y reintenta si falla.
+ */
+@Entity
+@Table(name = "media_delete_outbox",
+        indexes = @Index(name = "idx_media_delete_next", columnList = "next_attempt_at"))
+public class MediaDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "public_id", nullable = false, length = 255)
+    private String publicId;
+
+    @Column(name = "media_type", length = 20)
+    private String mediaType;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public MediaDeletion() {}
+
+    public MediaDeletion(String publicId, String mediaType) {
+        this.publicId  = publicId;
+        this.mediaType = mediaType;
+    }
+
+    // ── Getters & Setters ────────────────────────────────
+    public Long getId()                                   { return id; }
+    public String getPublicId()                           { return publicId; }
+    public String getMediaType()                          { return mediaType; }
+
+    public int getAttempts()                              { return attempts; }
+    public void setAttempts(int attempts)                 { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt()               { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError()                          { return lastError; }
+    public void setLastError(String lastError)            { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt()                   { return createdAt; }
+}
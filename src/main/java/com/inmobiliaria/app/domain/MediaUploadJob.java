@@ -0,0 +1,102 @@
+package com.inmobiliaria.app.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Subida pendiente de un fichero ya guardado en el directorio de staging.
+ * Un worker la sube al almacén de medios y crea el PropertyMedia correspondiente.
+ */
+@Entity
+@Table(name = "media_upload_jobs",
+        indexes = {
+                @Index(name = "idx_upload_jobs_property", columnList = "property_id"),
+                @Index(name = "idx_upload_jobs_status",   columnList = "status")
+        })
+public class MediaUploadJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "property_id", nullable = false)
+    private Property property;
+
+    @Column(name = "original_name", length = 255)
+    private String originalName;
+
+    @Column(name = "content_type", length = 80)
+    private String contentType;
+
+    @Column(name = "staging_path", nullable = false, length = 512)
+    private String stagingPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private MediaUploadStatus status = MediaUploadStatus.PENDIENTE;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    // Subida por trozos: tamaño anunciado y bytes ya recibidos en staging
+    @Column(name = "total_size")
+    private Long totalSize;
+
+    @Column(name = "received_bytes", nullable = false)
+    private long receivedBytes = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // PropertyMedia creado al completar la subida
+    @Column(name = "media_id")
+    private Long mediaId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    @PreUpdate
+    void touch() { this.updatedAt = LocalDateTime.now(); }
+
+    // ── Getters & Setters ────────────────────────────────
+
+    public Long getId()                                { return id; }
+
+    public Property getProperty()                      { return property; }
+    public void setProperty(Property property)         { this.property = property; }
+
+    public String getOriginalName()                    { return originalName; }
+    public void setOriginalName(String originalName)   { this.originalName = originalName; }
+
+    public String getContentType()                     { return contentType; }
+    public void setContentType(String contentType)     { this.contentType = contentType; }
+
+    public String getStagingPath()                     { return stagingPath; }
+    public void setStagingPath(String stagingPath)     { this.stagingPath = stagingPath; }
+
+    public MediaUploadStatus getStatus()               { return status; }
+    public void setStatus(MediaUploadStatus status)    { this.status = status; }
+
+    public int getAttempts()                           { return attempts; }
+    public void setAttempts(int attempts)              { this.attempts = attempts; }
+
+    public Long getTotalSize()                         { return totalSize; }
+    public void setTotalSize(Long totalSize)           { this.totalSize = totalSize; }
+
+    public long getReceivedBytes()                     { return receivedBytes; }
+    public void setReceivedBytes(long receivedBytes)   { this.receivedBytes = receivedBytes; }
+
+    public String getLastError()                       { return lastError; }
+    public void setLastError(String lastError)         { this.lastError = lastError; }
+
+    public Long getMediaId()                           { return mediaId; }
+    public void setMediaId(Long mediaId)               { this.mediaId = mediaId; }
+
+    public LocalDateTime getCreatedAt()                { return createdAt; }
+    public LocalDateTime getUpdatedAt()                { return updatedAt; }
+}
@@ -0,0 +1,9 @@
+package com.inmobiliaria.app.domain;
+
+public enum MediaUploadStatus {
+    RECIBIENDO,   // subida por trozos aún abierta
+    PENDIENTE,
+    SUBIENDO,
+    COMPLETADO,
+    ERROR
+}
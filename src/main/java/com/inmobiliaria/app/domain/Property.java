@@ -1,9 +1,15 @@
 package com.inmobiliaria.app.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.inmobiliaria.app.service.PropertyOptionsListener;
+import com.inmobiliaria.app.service.SearchIndexListener;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "properties")
+@EntityListeners({SearchIndexListener.class, PropertyOptionsListener.class})
+@Table(name = "properties", indexes = {
+        @Index(name = "idx_properties_public", columnList = "publicado, sold, property_type, precio")
+})
 public class Property {
 
     @Id
@@ -57,12 +63,15 @@ public class Property {
     private String portadaUrl;
 
     // ── Cliente que marcó pre-vendido ──────────────────────
-    @ManyToOne(fetch = FetchType.EAGER)
+    // LAZY: solo las pantallas que muestran el comprador lo traen con join fetch
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "pre_vendido_client_id")
     private Client preVendidoClient;
 
     // ── Cliente que compró (vendido definitivo) ────────────
-    @ManyToOne(fetch = FetchType.EAGER)
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sold_client_id")
     private Client soldClient;
 
@@ -3,7 +3,8 @@ package com.inmobiliaria.app.domain;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "property_media")
+@Table(name = "property_media",
+        indexes = @Index(name = "idx_media_property_type", columnList = "property_id, media_type"))
 public class PropertyMedia {
 
     @Id
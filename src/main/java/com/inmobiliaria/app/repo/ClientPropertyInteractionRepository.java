@@ -5,10 +5,12 @@ import com.inmobiliaria.app.domain.ContactChannel;
 import com.inmobiliaria.app.domain.InterestStatus;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface ClientPropertyInteractionRepository
@@ -17,20 +19,24 @@ public interface ClientPropertyInteractionRepository
     @Query("""
         select i
         from ClientPropertyInteraction i
-        join fetch i.client c
         join fetch i.property p
+        where i.client.id = :clientId
         order by i.contactDate desc, i.id desc
     """)
-    List<ClientPropertyInteraction> findAllWithClientAndPropertyOrderByContactDateDesc();
+    List<ClientPropertyInteraction> findByClientIdWithPropertyOrderByContactDateDesc(
+            @Param("clientId") Long clientId);
 
+    // Igual que la anterior, pero con comprador / pre-comprador (ficha de cliente)
     @Query("""
         select i
         from ClientPropertyInteraction i
         join fetch i.property p
+        left join fetch p.soldClient
+        left join fetch p.preVendidoClient
         where i.client.id = :clientId
         order by i.contactDate desc, i.id desc
     """)
-    List<ClientPropertyInteraction> findByClientIdWithPropertyOrderByContactDateDesc(
+    List<ClientPropertyInteraction> findByClientIdWithPropertyAndBuyersOrderByContactDateDesc(
             @Param("clientId") Long clientId);
 
     @Query("""
@@ -91,42 +97,79 @@ public interface ClientPropertyInteractionRepository
             @Param("q") String q
     );
 
+    // ── /interesados: todos los filtros en BD + keyset sobre (contactDate desc, id desc) ──
+    // Los flags filtrarEstados / filtrarTexto activan los IN; los ids de texto
+    // vienen del índice de búsqueda (interacción, cliente o inmueble).
     @Query("""
         select i
         from ClientPropertyInteraction i
         join fetch i.client c
         join fetch i.property p
-        where (:status is null or i.status = :status)
+        left join fetch p.soldClient
+        left join fetch p.preVendidoClient
+        where (:filtrarEstados = false or i.status in :statuses)
           and (:channel is null or i.channel = :channel)
           and (:from is null or i.contactDate >= :from)
           and (:to is null or i.contactDate <= :to)
-          and (
-               :q is null or :q = '' or
-               lower(c.fullName) like lower(concat('%', :q, '%')) or
-               lower(p.propertyCode) like lower(concat('%', :q, '%')) or
-               lower(p.propertyType) like lower(concat('%', :q, '%')) or
-               lower(p.address) like lower(concat('%', :q, '%')) or
-               lower(p.municipality) like lower(concat('%', :q, '%')) or
-               lower(i.comments) like lower(concat('%', :q, '%')) or
-               lower(i.solviaCode) like lower(concat('%', :q, '%')) or
-               lower(coalesce(c.companyName, '')) like lower(concat('%', :q, '%'))
-          )
+          and (:ndaOnly = false or i.ndaRequested = true)
+          and (:filtrarTexto = false
+               or i.id in :interactionIds
+               or c.id in :clientIds
+               or p.id in :propertyIds)
+          and (:afterDate is null
+               or i.contactDate < :afterDate
+               or (i.contactDate = :afterDate and i.id < :afterId))
         order by i.contactDate desc, i.id desc
     """)
-    List<ClientPropertyInteraction> searchWithFilters(
-            @Param("status") InterestStatus status,
+    List<ClientPropertyInteraction> findPage(
+            @Param("filtrarEstados") boolean filtrarEstados,
+            @Param("statuses") Collection<InterestStatus> statuses,
             @Param("channel") ContactChannel channel,
-            @Param("q") String q,
             @Param("from") LocalDate from,
-            @Param("to") LocalDate to
+            @Param("to") LocalDate to,
+            @Param("ndaOnly") boolean ndaOnly,
+            @Param("filtrarTexto") boolean filtrarTexto,
+            @Param("interactionIds") Collection<Long> interactionIds,
+            @Param("clientIds") Collection<Long> clientIds,
+            @Param("propertyIds") Collection<Long> propertyIds,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterId") Long afterId,
+            Pageable limit
     );
 
     long countByPropertyId(Long propertyId);
 
+    // Nº de interacciones por inmueble en una sola query: filas [propertyId, count]
+    @Query("""
+        select i.property.id, count(i)
+        from ClientPropertyInteraction i
+        where i.property.id in :propertyIds
+        group by i.property.id
+    """)
+    List<Object[]> countGroupedByPropertyIdIn(@Param("propertyIds") Collection<Long> propertyIds);
+
+    // Nº de interacciones por cliente en una sola query: filas [clientId, count]
+    @Query("""
+        select i.client.id, count(i)
+        from ClientPropertyInteraction i
+        where i.client.id in :clientIds
+        group by i.client.id
+    """)
+    List<Object[]> countGroupedByClientIdIn(@Param("clientIds") Collection<Long> clientIds);
+
     // Usado para borrar interacciones antes de eliminar un inmueble
     List<ClientPropertyInteraction> findByPropertyId(Long propertyId);
 
-    List<ClientPropertyInteraction> findByProperty_IdOrderByContactDateDesc(Long propertyId);
+    // Clientes interesados en un inmueble (combo de visitas): con el cliente ya cargado
+    @Query("""
+        select i
+        from ClientPropertyInteraction i
+        join fetch i.client c
+        where i.property.id = :propertyId
+        order by i.contactDate desc, i.id desc
+    """)
+    List<ClientPropertyInteraction> findByPropertyIdWithClientOrderByContactDateDesc(
+            @Param("propertyId") Long propertyId);
 
     // Interacciones de un inmueble de clientes distintos al comprador (para cascada al vender)
     @Query("""
@@ -149,4 +192,16 @@ public interface ClientPropertyInteractionRepository
         order by cnt desc
     """)
     List<Object[]> findTopPropertiesByInteractionCount(Pageable pageable);
+
+    // Solo ids, para reconstruir el índice de búsqueda por lotes
+    @Query("SELECT i.id FROM ClientPropertyInteraction i")
+    List<Long> findAllIds();
+
+    // ── Borrado de un inmueble: ids (para el índice de búsqueda) y DELETE en bloque ──
+    @Query("select i.id from ClientPropertyInteraction i where i.property.id = :propertyId")
+    List<Long> findIdsByPropertyId(@Param("propertyId") Long propertyId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from ClientPropertyInteraction i where i.property.id = :propertyId")
+    int deleteAllByPropertyIdInBulk(@Param("propertyId") Long propertyId);
 }
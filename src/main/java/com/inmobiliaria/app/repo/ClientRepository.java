@@ -1,11 +1,14 @@
 package com.inmobiliaria.app.repo;
 
 import com.inmobiliaria.app.domain.Client;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,14 +23,26 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     @EntityGraph(attributePaths = {"emails"})
     Optional<Client> findWithEmailsById(Long id);
 
-    // ── NUEVO ──────────────────────────────────────────────
-    @Query("""
+    // ── Listado /clientes: tipo con EXISTS, paginado en BD ──
+    String SEARCH_PAGE = """
         SELECT c FROM Client c
-        WHERE (:q IS NULL OR :q = ''
-               OR LOWER(c.fullName)    LIKE LOWER(CONCAT('%',:q,'%'))
-               OR LOWER(c.companyName) LIKE LOWER(CONCAT('%',:q,'%')))
-        ORDER BY c.fullName ASC
-        """)
-    List<Client> searchAll(@Param("q") String q);
-    // ───────────────────────────────────────────────────────
+        WHERE (:tipo IS NULL
+               OR (:tipo = 'potencial' AND NOT EXISTS (
+                   SELECT i.id FROM ClientPropertyInteraction i WHERE i.client = c))
+               OR (:tipo = 'interesado' AND EXISTS (
+                   SELECT i.id FROM ClientPropertyInteraction i WHERE i.client = c)))
+        """;
+
+    @Query(SEARCH_PAGE)
+    Page<Client> searchPage(@Param("tipo") String tipo, Pageable pageable);
+
+    // Solo los ids que devolvió el índice de búsqueda (como mucho SearchIndex.MAX_HITS)
+    @Query(SEARCH_PAGE + " AND c.id IN :ids")
+    Page<Client> searchPageIn(@Param("ids") Collection<Long> ids,
+                              @Param("tipo") String tipo,
+                              Pageable pageable);
+
+    // Solo ids, para reconstruir el índice de búsqueda por lotes
+    @Query("SELECT c.id FROM Client c")
+    List<Long> findAllIds();
 }
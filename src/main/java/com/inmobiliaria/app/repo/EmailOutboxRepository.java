@@ -0,0 +1,30 @@
+package com.inmobiliaria.app.repo;
+
+import com.inmobiliaria.app.domain.EmailOutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    // Lote de correos con el reintento vencido, los más antiguos primero
+    @Query("""
+        select m from EmailOutboxMessage m
+        where m.attempts < :maxAttempts and m.nextAttemptAt <= :now
+        order by m.nextAttemptAt, m.id
+    """)
+    List<EmailOutboxMessage> findDue(@Param("maxAttempts") int maxAttempts,
+                                     @Param("now") LocalDateTime now,
+                                     Pageable limit);
+
+    long countByAttemptsLessThan(int maxAttempts);
+
+    long countByAttemptsGreaterThanEqual(int maxAttempts);
+
+    @Query("select min(m.createdAt) from EmailOutboxMessage m where m.attempts < :maxAttempts")
+    LocalDateTime findOldestPending(@Param("maxAttempts") int maxAttempts);
+}
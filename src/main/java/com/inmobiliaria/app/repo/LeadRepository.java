@@ -0,0 +1,14 @@
+package com.inmobiliaria.app.repo;
+
+import com.inmobiliaria.app.domain.Lead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface LeadRepository extends JpaRepository<Lead, Long> {
+
+    // Consultas aún sin asociar a un cliente (se reintentan al arrancar)
+    @Query("select l.id from Lead l where l.matchedAt is null order by l.id")
+    List<Long> findUnmatchedIds();
+}
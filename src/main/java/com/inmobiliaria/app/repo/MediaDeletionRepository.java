@@ -0,0 +1,23 @@
+package com.inmobiliaria.app.repo;
+
+import com.inmobiliaria.app.domain.MediaDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MediaDeletionRepository extends JpaRepository<MediaDeletion, Long> {
+
+    // Lote de borrados con el reintento vencido (los agotados se quedan para revisión)
+    @Query("""
+        select d from MediaDeletion d
+        where d.attempts < :maxAttempts and d.nextAttemptAt <= :now
+        order by d.nextAttemptAt, d.id
+    """)
+    List<MediaDeletion> findDue(@Param("maxAttempts") int maxAttempts,
+                                @Param("now") LocalDateTime now,
+                                Pageable limit);
+}
@@ -0,0 +1,31 @@
+package com.inmobiliaria.app.repo;
+
+import com.inmobiliaria.app.domain.MediaUploadJob;
+import com.inmobiliaria.app.domain.MediaUploadStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MediaUploadJobRepository extends JpaRepository<MediaUploadJob, Long> {
+
+    // Progreso en la ficha del inmueble: los últimos trabajos
+    List<MediaUploadJob> findTop50ByPropertyIdOrderByIdDesc(Long propertyId);
+
+    // Recuperación al arrancar: lo que quedó a medias
+    List<MediaUploadJob> findByStatusIn(Collection<MediaUploadStatus> statuses);
+
+    List<MediaUploadJob> findByPropertyId(Long propertyId);
+
+    @Transactional
+    long deleteByStatusAndUpdatedAtBefore(MediaUploadStatus status, LocalDateTime before);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from MediaUploadJob j where j.property.id = :propertyId")
+    int deleteAllByPropertyIdInBulk(@Param("propertyId") Long propertyId);
+}
@@ -2,10 +2,31 @@ package com.inmobiliaria.app.repo;
 
 import com.inmobiliaria.app.domain.PropertyMedia;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface PropertyMediaRepository extends JpaRepository<PropertyMedia, Long> {
     List<PropertyMedia> findByPropertyIdOrderByIdAsc(Long propertyId);
     List<PropertyMedia> findByPropertyId(Long propertyId);
     void deleteByPropertyId(Long propertyId);
+
+    // ── Medios de varios inmuebles de una vez (foto pública) ──
+    List<PropertyMedia> findByPropertyIdInOrderByIdAsc(Collection<Long> propertyIds);
+
+    // ── Portadas: primera IMAGE de cada inmueble en una sola query ──
+    // Devuelve filas [propertyId, cloudinaryUrl]
+    @Query("SELECT m.property.id, m.cloudinaryUrl FROM PropertyMedia m " +
+           "WHERE m.property.id IN :ids AND m.mediaType = 'IMAGE' " +
+           "AND m.id = (SELECT MIN(m2.id) FROM PropertyMedia m2 " +
+           "            WHERE m2.property.id = m.property.id AND m2.mediaType = 'IMAGE')")
+    List<Object[]> findCoverUrlsByPropertyIdIn(@Param("ids") Collection<Long> propertyIds);
+
+    // Borrado en bloque al eliminar un inmueble (los ficheros van al outbox antes)
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM PropertyMedia m WHERE m.property.id = :propertyId")
+    int deleteAllByPropertyIdInBulk(@Param("propertyId") Long propertyId);
 }
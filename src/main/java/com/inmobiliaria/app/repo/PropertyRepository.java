@@ -1,20 +1,24 @@
 package com.inmobiliaria.app.repo;
 
 import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.web.dto.PropertyApiRowDto;
 import com.inmobiliaria.app.web.dto.PropertyCatalogDto;
+import com.inmobiliaria.app.web.dto.PropertyListRowDto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface PropertyRepository extends JpaRepository<Property, Long> {
+public interface PropertyRepository extends JpaRepository<Property, Long>,
+                                            JpaSpecificationExecutor<Property> {
 
     Optional<Property> findByPropertyCode(String propertyCode);
 
-    List<Property> findAllByOrderByPropertyCodeAsc();
-
     // ── Web pública: solo inmuebles publicados y no vendidos ──
     List<Property> findByPublicadoTrueAndSoldFalseOrderByIdDesc();
 
@@ -28,16 +32,84 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
            "ORDER BY p.propertyType ASC")
     List<String> findTiposPublicados();
 
-    // ── Catálogo combo: búsqueda AJAX ligera, solo campos necesarios ──
+    // ── Facetas del catálogo público (agregados, sin cargar entidades) ──
+    @Query("SELECT DISTINCT p.municipality FROM Property p " +
+           "WHERE p.publicado = true AND p.sold = false " +
+           "AND p.municipality IS NOT NULL AND p.municipality <> '' " +
+           "ORDER BY p.municipality ASC")
+    List<String> findMunicipiosPublicados();
+
+    @Query("SELECT DISTINCT p.province FROM Property p " +
+           "WHERE p.publicado = true AND p.sold = false " +
+           "AND p.province IS NOT NULL AND p.province <> '' " +
+           "ORDER BY p.province ASC")
+    List<String> findProvinciasPublicadas();
+
+    @Query("SELECT MAX(p.precio) FROM Property p " +
+           "WHERE p.publicado = true AND p.sold = false")
+    Integer findMaxPrecioPublicado();
+
+    // ── Opciones de los combos (PropertyOptionsCache): todos los no vendidos, o los cambiados ──
+    @Query("SELECT new com.inmobiliaria.app.web.dto.PropertyCatalogDto(" +
+           "p.id, p.propertyCode, p.propertyType, p.address, p.municipality, " +
+           "p.preVendido, p.sold) " +
+           "FROM Property p " +
+           "WHERE p.sold = false " +
+           "ORDER BY p.propertyCode ASC")
+    List<PropertyCatalogDto> findCatalogOptions();
+
     @Query("SELECT new com.inmobiliaria.app.web.dto.PropertyCatalogDto(" +
            "p.id, p.propertyCode, p.propertyType, p.address, p.municipality, " +
            "p.preVendido, p.sold) " +
            "FROM Property p " +
+           "WHERE p.sold = false AND p.id IN :ids")
+    List<PropertyCatalogDto> findCatalogOptionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ── Listado interno /inmuebles: proyección + paginación keyset por property_code ──
+    String LIST_ROWS = "SELECT new com.inmobiliaria.app.web.dto.PropertyListRowDto(" +
+           "p.id, p.propertyCode, p.propertyType, p.address, p.municipality, p.notes, " +
+           "p.sold, p.preVendido, p.publicado) " +
+           "FROM Property p " +
+           "WHERE (:after IS NULL OR p.propertyCode > :after) " +
+           "AND (:soldFilter = 'ALL' " +
+           "  OR (:soldFilter = 'SOLD'        AND p.sold = true) " +
+           "  OR (:soldFilter = 'ACTIVE'      AND p.sold = false AND p.preVendido = false) " +
+           "  OR (:soldFilter = 'PRE_VENDIDO' AND p.sold = false AND p.preVendido = true)) " +
+           "AND (:publicado IS NULL OR p.publicado = :publicado) ";
+
+    @Query(LIST_ROWS + "ORDER BY p.propertyCode ASC")
+    List<PropertyListRowDto> findListRows(@Param("soldFilter") String soldFilter,
+                                          @Param("publicado") Boolean publicado,
+                                          @Param("after") String afterCode,
+                                          Pageable limit);
+
+    // Solo los ids que devolvió el índice de búsqueda (como mucho SearchIndex.MAX_HITS)
+    @Query(LIST_ROWS + "AND p.id IN :ids ORDER BY p.propertyCode ASC")
+    List<PropertyListRowDto> findListRowsIn(@Param("ids") Collection<Long> ids,
+                                            @Param("soldFilter") String soldFilter,
+                                            @Param("publicado") Boolean publicado,
+                                            @Param("after") String afterCode,
+                                            Pageable limit);
+
+    // ── API /api/v1/inmuebles: proyección + paginación keyset por id, sin vendidos ──
+    @Query("SELECT new com.inmobiliaria.app.web.dto.PropertyApiRowDto(" +
+           "p.id, p.propertyCode, p.propertyType, p.address, p.municipality, p.province, " +
+           "p.precio, p.preVendido, p.publicado) " +
+           "FROM Property p " +
+           "WHERE p.sold = false AND (:after IS NULL OR p.id > :after) " +
+           "ORDER BY p.id ASC")
+    List<PropertyApiRowDto> findApiRows(@Param("after") Long afterId, Pageable limit);
+
+    // Mismo contenido ordenado por código, para el /api/inmuebles de siempre
+    @Query("SELECT new com.inmobiliaria.app.web.dto.PropertyApiRowDto(" +
+           "p.id, p.propertyCode, p.propertyType, p.address, p.municipality, p.province, " +
+           "p.precio, p.preVendido, p.publicado) " +
+           "FROM Property p " +
            "WHERE p.sold = false " +
-           "AND (LOWER(p.propertyCode) LIKE LOWER(CONCAT('%',:q,'%')) " +
-           "  OR LOWER(p.propertyType) LIKE LOWER(CONCAT('%',:q,'%')) " +
-           "  OR LOWER(p.municipality) LIKE LOWER(CONCAT('%',:q,'%')) " +
-           "  OR LOWER(p.address)      LIKE LOWER(CONCAT('%',:q,'%'))) " +
            "ORDER BY p.propertyCode ASC")
-    List<PropertyCatalogDto> searchCatalog(@Param("q") String query);
-}
\ No newline at end of file
+    List<PropertyApiRowDto> findApiRowsByCode();
+
+    // Solo ids, para reconstruir el índice de búsqueda por lotes
+    @Query("SELECT p.id FROM Property p")
+    List<Long> findAllIds();
+}
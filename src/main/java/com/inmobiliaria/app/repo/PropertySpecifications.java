@@ -0,0 +1,74 @@
+package com.inmobiliaria.app.repo;
+
+import com.inmobiliaria.app.domain.Property;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtros del catálogo público traducidos a Criteria, para que MySQL
+ * filtre, ordene y pagine usando idx_properties_public.
+ */
+public final class PropertySpecifications {
+
+    private PropertySpecifications() {}
+
+    public static Specification<Property> publicCatalog(String tipo,
+                                                        Integer precioMin,
+                                                        Integer precioMax,
+                                                        String municipio,
+                                                        String provincia,
+                                                        String estado,
+                                                        String orden) {
+        return (root, query, cb) -> {
+            List<Predicate> where = new ArrayList<>();
+
+            // Solo publicados y no vendidos definitivamente
+            where.add(cb.isTrue(root.get("publicado")));
+            where.add(cb.isFalse(root.get("sold")));
+
+            // Tipo de inmueble
+            if (tipo != null && !tipo.isBlank()) {
+                where.add(cb.equal(cb.lower(root.get("propertyType")), tipo.trim().toLowerCase()));
+            }
+
+            // Rango de precio
+            if (precioMin != null) where.add(cb.greaterThanOrEqualTo(root.get("precio"), precioMin));
+            if (precioMax != null) where.add(cb.lessThanOrEqualTo(root.get("precio"), precioMax));
+
+            // Municipio / provincia (contains, case-insensitive)
+            if (municipio != null && !municipio.isBlank()) {
+                where.add(cb.like(cb.lower(root.get("municipality")),
+                        "%" + municipio.trim().toLowerCase() + "%"));
+            }
+            if (provincia != null && !provincia.isBlank()) {
+                where.add(cb.like(cb.lower(root.get("province")),
+                        "%" + provincia.trim().toLowerCase() + "%"));
+            }
+
+            // Estado: prevendido o disponible
+            if ("prevendido".equalsIgnoreCase(estado)) where.add(cb.isTrue(root.get("preVendido")));
+            if ("disponible".equalsIgnoreCase(estado)) where.add(cb.isFalse(root.get("preVendido")));
+
+            // Ordenación (la query de conteo de Page la descarta)
+            Class<?> resultType = query.getResultType();
+            if (resultType != Long.class && resultType != long.class) {
+                Expression<Integer> precio   = root.get("precio");
+                Expression<Integer> sinPrecio = cb.<Integer>selectCase()
+                        .when(cb.isNull(precio), 1).otherwise(0);
+                if ("precio_asc".equals(orden)) {
+                    query.orderBy(cb.asc(sinPrecio), cb.asc(precio), cb.desc(root.get("id")));
+                } else if ("precio_desc".equals(orden)) {
+                    query.orderBy(cb.asc(sinPrecio), cb.desc(precio), cb.desc(root.get("id")));
+                } else {
+                    query.orderBy(cb.desc(root.get("id")));
+                }
+            }
+
+            return cb.and(where.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.inmobiliaria.app.repo;
 
 import com.inmobiliaria.app.domain.SupplierProperty;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
@@ -14,4 +15,9 @@ public interface SupplierPropertyRepository extends JpaRepository<SupplierProper
 
     @Query("SELECT sp FROM SupplierProperty sp JOIN FETCH sp.supplier WHERE sp.property.id = :propertyId")
     List<SupplierProperty> findByPropertyId(@Param("propertyId") Long propertyId);
+
+    // Borrado en bloque al eliminar un inmueble
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM SupplierProperty sp WHERE sp.property.id = :propertyId")
+    int deleteAllByPropertyIdInBulk(@Param("propertyId") Long propertyId);
 }
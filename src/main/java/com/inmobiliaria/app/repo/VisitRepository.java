@@ -4,6 +4,7 @@ import com.inmobiliaria.app.domain.Visit;
 import com.inmobiliaria.app.domain.VisitStatus;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -25,4 +26,9 @@ public interface VisitRepository extends JpaRepository<Visit, Long> {
 
     // Usado para borrar visitas antes de eliminar un inmueble
     List<Visit> findByProperty_Id(Long propertyId);
+
+    // Borrado en bloque al eliminar un inmueble (un solo DELETE)
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Visit v WHERE v.property.id = :propertyId")
+    int deleteAllByPropertyIdInBulk(@Param("propertyId") Long propertyId);
 }
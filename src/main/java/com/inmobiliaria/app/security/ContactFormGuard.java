@@ -0,0 +1,136 @@
+package com.inmobiliaria.app.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro delante de los formularios públicos de contacto (POST /contacto y
+ * /catalogo/{id}/contacto). Descarta bots y ráfagas antes de tocar la BD o
+ * el correo:
+ * <ol>
+ *   <li>Honeypot: el campo oculto {@value #HONEYPOT} debe llegar vacío.</li>
+ *   <li>Tiempo de relleno: {@value #FILL_TIME} (milisegundos con el formulario
+ *       abierto, medidos en el navegador al enviar) debe llegar al menos a
+ *       {@code app.contact.min-fill-time}. Se mide en el cliente porque la
+ *       página puede venir de la copia estática, pintada mucho antes. Sin
+ *       JavaScript llega vacío y no se comprueba.</li>
+ *   <li>Token bucket por IP y, después, por teléfono.</li>
+ * </ol>
+ * A los bots se les responde como si se hubiera enviado, para no darles
+ * pistas; a quien supera el límite, con el aviso de error del formulario.
+ */
+@Component
+public class ContactFormGuard extends OncePerRequestFilter {
+
+    static final String HONEYPOT    = "website";
+    static final String FILL_TIME   = "_t";
+
+    private static final Pattern PROPERTY_CONTACT = Pattern.compile("/catalogo/(\\d+)/contacto");
+
+    private static final int  MAX_KEYS     = 50_000;
+    private static final long LOG_EVERY_MS = 60_000;
+
+    private final TokenBuckets byIp;
+    private final TokenBuckets byPhone;
+    private final long         minFillMillis;
+
+    private final AtomicLong bots      = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong lastLog   = new AtomicLong();
+
+    public ContactFormGuard(@Value("${app.contact.limit.ip-burst:5}") int ipBurst,
+                            @Value("${app.contact.limit.ip-interval:2m}") Duration ipInterval,
+                            @Value("${app.contact.limit.phone-burst:3}") int phoneBurst,
+                            @Value("${app.contact.limit.phone-interval:20m}") Duration phoneInterval,
+                            @Value("${app.contact.min-fill-time:2s}") Duration minFillTime) {
+        this.byIp          = new TokenBuckets(ipBurst, ipInterval, MAX_KEYS);
+        this.byPhone       = new TokenBuckets(phoneBurst, phoneInterval, MAX_KEYS);
+        this.minFillMillis = minFillTime.toMillis();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) return true;
+        String path = path(request);
+        return !path.equals("/contacto") && !PROPERTY_CONTACT.matcher(path).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String page = formPage(path(request));
+
+        // 1-2. Bots: sin estado, lo más barato primero
+        if (looksLikeBot(request)) {
+            bots.incrementAndGet();
+            report();
+            response.sendRedirect(page + "?enviado" + anchor(page));
+            return;
+        }
+
+        // 3. Límite por IP y por teléfono
+        String phone = request.getParameter("telefono");
+        String phoneKey = phone == null ? "" : phone.replaceAll("[^0-9]", "");
+        if (!byIp.tryAcquire(request.getRemoteAddr())
+                || (!phoneKey.isEmpty() && !byPhone.tryAcquire(phoneKey))) {
+            throttled.incrementAndGet();
+            report();
+            response.sendRedirect(page + "?error" + anchor(page));
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    private boolean looksLikeBot(HttpServletRequest request) {
+        String honeypot = request.getParameter(HONEYPOT);
+        if (honeypot != null && !honeypot.isEmpty()) return true;
+
+        // Ausente: el POST no viene de nuestro formulario, que siempre lo lleva
+        String fillTime = request.getParameter(FILL_TIME);
+        if (fillTime == null) return true;
+        // Vacío: el navegador no ejecutó el script. Tiempo desconocido, no bot;
+        // quedan el honeypot y el límite por IP / teléfono
+        if (fillTime.isBlank()) return false;
+        try {
+            return Long.parseLong(fillTime.trim()) < minFillMillis;
+        } catch (NumberFormatException ex) {
+            return true;
+        }
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // Página del formulario, para volver a ella con ?enviado / ?error
+    private static String formPage(String path) {
+        Matcher m = PROPERTY_CONTACT.matcher(path);
+        return m.matches() ? "/catalogo/" + m.group(1) : "/";
+    }
+
+    private static String anchor(String page) {
+        return page.equals("/") ? "#contacto" : "";
+    }
+
+    // Un resumen por minuto como mucho: en plena ráfaga no se inunda el log
+    private void report() {
+        long now  = System.currentTimeMillis();
+        long last = lastLog.get();
+        if (now - last >= LOG_EVERY_MS && lastLog.compareAndSet(last, now)) {
+            System.err.println("[ContactFormGuard] Descartados hasta ahora: " + bots.get()
+                    + " bots, " + throttled.get() + " por límite (IPs en memoria: " + byIp.size() + ")");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.inmobiliaria.app.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -19,6 +20,24 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Web pública: sin CSRF ni caché de peticiones, así ninguna respuesta lleva
+     * cookies y todas las visitas reciben la misma página (cacheable por
+     * proxies, ver PublicController y StaticSiteFilter). Los formularios de
+     * contacto son anónimos; los protege ContactFormGuard.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/", "/catalogo", "/catalogo/**", "/contacto")
+            .csrf(csrf -> csrf.disable())
+            .requestCache(cache -> cache.disable())
+            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
@@ -38,10 +57,8 @@ public class SecurityConfig {
                     "/fonts/**", "/uploads/**", "/webjars/**",
                     "/favicon.ico", "/error"
                 ).permitAll()
-                // Páginas públicas
-                .requestMatchers(
-                    "/", "/login", "/catalogo", "/catalogo/**", "/contacto"
-                ).permitAll()
+                // Páginas públicas (la web en sí va por publicFilterChain)
+                .requestMatchers("/login").permitAll()
                 // Todo lo demás requiere login
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,58 @@
+package com.inmobiliaria.app.security;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket por clave (IP, teléfono...) sin locks. Cada clave guarda un
+ * único long, el instante teórico en que el cubo vuelve a estar lleno
+ * (GCRA), y se actualiza con CAS: admite ráfagas de {@code burst} peticiones
+ * y repone una cada {@code interval}.
+ *
+ * El mapa está acotado: al llegar a {@code maxKeys} se purgan las claves con
+ * el cubo ya lleno (equivalen a no tener entrada) y, si aun así no cabe, se
+ * vacía entero. Ante un ataque con IPs aleatorias se pierde el estado antes
+ * que la memoria.
+ */
+public class TokenBuckets {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int  maxKeys;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBuckets(int burst, Duration interval, int maxKeys) {
+        this.intervalNanos = interval.toNanos();
+        this.burstNanos    = intervalNanos * Math.max(1, burst);
+        this.maxKeys       = maxKeys;
+    }
+
+    /** Consume un token de la clave; false si el cubo está vacío. */
+    public boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+
+        AtomicLong full = buckets.get(key);
+        if (full == null) {
+            if (buckets.size() >= maxKeys) evict(now);
+            full = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = full.get();
+            long next    = (current - now > 0 ? current : now) + intervalNanos;
+            if (next - now > burstNanos) return false;
+            if (full.compareAndSet(current, next)) return true;
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evict(long now) {
+        buckets.values().removeIf(full -> full.get() - now <= 0);
+        if (buckets.size() >= maxKeys) buckets.clear();
+    }
+}
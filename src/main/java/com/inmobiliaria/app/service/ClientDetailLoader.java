@@ -0,0 +1,71 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.Client;
+import com.inmobiliaria.app.domain.ClientPropertyInteraction;
+import com.inmobiliaria.app.domain.Visit;
+import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.repo.ClientRepository;
+import com.inmobiliaria.app.repo.VisitRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ficha de cliente completa en cuatro queries fijas, dentro de una sola
+ * transacción (o la del llamante, si ya hay una):
+ * <ol>
+ *   <li>cliente + teléfonos;</li>
+ *   <li>emails: la misma instancia de Client, así que solo inicializa la
+ *       colección (dos colecciones en un JOIN darían producto cartesiano);</li>
+ *   <li>interacciones + inmueble + comprador / pre-comprador;</li>
+ *   <li>visitas + inmueble.</li>
+ * </ol>
+ * La pantalla y los formularios se construyen a partir de lo cargado, sin
+ * volver a la BD.
+ */
+@Service
+public class ClientDetailLoader {
+
+    private final ClientRepository                    clientRepository;
+    private final ClientPropertyInteractionRepository interactionRepository;
+    private final VisitRepository                     visitRepository;
+
+    public ClientDetailLoader(ClientRepository clientRepository,
+                              ClientPropertyInteractionRepository interactionRepository,
+                              VisitRepository visitRepository) {
+        this.clientRepository      = clientRepository;
+        this.interactionRepository = interactionRepository;
+        this.visitRepository       = visitRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ClientDetail> load(Long clientId) {
+        Client client = clientRepository.findWithPhonesById(clientId).orElse(null);
+        if (client == null) return Optional.empty();
+        clientRepository.findWithEmailsById(clientId);
+
+        List<ClientPropertyInteraction> interactions =
+                interactionRepository.findByClientIdWithPropertyAndBuyersOrderByContactDateDesc(clientId);
+        List<Visit> visits = visitRepository.findByClient_IdOrderByVisitAtDescIdDesc(clientId);
+        return Optional.of(new ClientDetail(client, interactions, visits));
+    }
+
+    // ── Resultado ────────────────────────────────────────────
+    public static final class ClientDetail {
+        private final Client                          client;
+        private final List<ClientPropertyInteraction> interactions;
+        private final List<Visit>                     visits;
+
+        ClientDetail(Client client, List<ClientPropertyInteraction> interactions, List<Visit> visits) {
+            this.client       = client;
+            this.interactions = interactions;
+            this.visits       = visits;
+        }
+
+        public Client                          getClient()       { return client; }
+        public List<ClientPropertyInteraction> getInteractions() { return interactions; }
+        public List<Visit>                     getVisits()       { return visits; }
+    }
+}
@@ -0,0 +1,86 @@
+package com.inmobiliaria.app.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(name = "app.media.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryMediaStorage implements MediaStorage {
+
+    // Trozo de subida a Cloudinary (mínimo 5 MB): es lo único que se tiene en memoria
+    private static final int CHUNK_SIZE = 20 * 1024 * 1024;
+
+    private static final String IMAGE_UPLOAD = "/image/upload/";
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryMediaStorage(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+
+    /**
+     * Sube un fichero sin cargarlo entero en memoria: se envía a Cloudinary
+     * por trozos de {@link #CHUNK_SIZE}.
+     */
+    @Override
+    public StoredMedia store(Long propertyId, Path file, String originalName, String mediaType) throws IOException {
+        String resourceType = resourceType(mediaType);
+
+        Map<String, Object> params;
+        if (resourceType.equals("raw")) {
+            String ext = "";
+            int dot = originalName.lastIndexOf('.');
+            if (dot > 0) ext = originalName.substring(dot);
+            params = ObjectUtils.asMap(
+                "resource_type", "raw",
+                "public_id",     "inmobiliaria/" + propertyId + "/" + System.currentTimeMillis() + ext,
+                "use_filename",  false,
+                "access_mode",   "public"
+            );
+        } else {
+            params = ObjectUtils.asMap(
+                "resource_type", resourceType,
+                "folder",        "inmobiliaria/" + propertyId
+            );
+        }
+
+        Map<?, ?> result = cloudinary.uploader().uploadLarge(file.toFile(), params, CHUNK_SIZE);
+        return new StoredMedia((String) result.get("secure_url"), (String) result.get("public_id"));
+    }
+
+    @Override
+    public void delete(String publicId, String mediaType) throws IOException {
+        cloudinary.uploader().destroy(
+            publicId,
+            ObjectUtils.asMap("resource_type", resourceType(mediaType))
+        );
+    }
+
+    /**
+     * Transformación en la propia URL: ancho máximo sin ampliar (c_limit), y
+     * formato y calidad automáticos (AVIF/WebP según el navegador). Cloudinary
+     * la genera en la primera petición y la sirve desde su CDN.
+     */
+    @Override
+    public String variantUrl(String url, ImageVariant variant) {
+        int i = url.indexOf(IMAGE_UPLOAD);
+        if (i < 0) return url;
+        int at = i + IMAGE_UPLOAD.length();
+        return url.substring(0, at)
+                + "c_limit,w_" + variant.getWidth() + ",f_auto,q_auto/"
+                + url.substring(at);
+    }
+
+    // ── resource_type de Cloudinary según el tipo interno ────
+    private static String resourceType(String mediaType) {
+        if ("VIDEO".equals(mediaType)) return "video";
+        if ("IMAGE".equals(mediaType)) return "image";
+        return "raw";
+    }
+}
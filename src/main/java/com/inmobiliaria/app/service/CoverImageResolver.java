@@ -0,0 +1,31 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.repo.PropertyMediaRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resuelve la portada (primera IMAGE) de un conjunto de inmuebles
+ * con una única query, en lugar de una por inmueble.
+ */
+@Service
+public class CoverImageResolver {
+
+    private final PropertyMediaRepository mediaRepository;
+
+    public CoverImageResolver(PropertyMediaRepository mediaRepository) {
+        this.mediaRepository = mediaRepository;
+    }
+
+    public Map<Long, String> resolve(Collection<Long> propertyIds) {
+        if (propertyIds == null || propertyIds.isEmpty()) return Map.of();
+        Map<Long, String> covers = new HashMap<>();
+        for (Object[] row : mediaRepository.findCoverUrlsByPropertyIdIn(propertyIds)) {
+            covers.put((Long) row[0], (String) row[1]);
+        }
+        return covers;
+    }
+}
@@ -0,0 +1,206 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.EmailOutboxMessage;
+import com.inmobiliaria.app.repo.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envío de correos a través de la tabla email_outbox. {@link #enqueue} solo
+ * inserta la fila (en la transacción de quien llama); tras el commit, y cada
+ * 30 s por si acaso, un worker vacía la cola en lotes: cada lote sale por una
+ * única conexión SMTP. Los fallos se reintentan con espera creciente hasta
+ * {@link #MAX_ATTEMPTS}; los agotados se quedan en la tabla para revisión.
+ */
+@Service
+public class EmailOutbox {
+
+    static final int MAX_ATTEMPTS = 12;
+
+    private static final int  BATCH_SIZE        = 100;
+    private static final int  MESSAGES_PER_SMTP = 20;
+    private static final long POLL_SECONDS      = 30;
+    private static final long BASE_BACKOFF_SEC  = 30;
+    private static final long MAX_BACKOFF_SEC   = 60 * 60;
+
+    private final EmailOutboxRepository    outboxRepository;
+    private final JavaMailSender           mailSender;
+    private final ScheduledExecutorService drainer;
+    private final ExecutorService          senders;
+
+    // Contadores desde el arranque (ver stats())
+    private final AtomicLong sent     = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong givenUp  = new AtomicLong();
+
+    public EmailOutbox(EmailOutboxRepository outboxRepository,
+                       JavaMailSender mailSender,
+                       @Value("${app.mail.workers:2}") int workers) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender       = mailSender;
+        this.drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "email-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger n = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread t = new Thread(r, "email-sender-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Solo registra el correo; se envía tras el commit
+    public void enqueue(String to, String subject, String body) {
+        outboxRepository.save(new EmailOutboxMessage(to, subject, body));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { wakeUp(); }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    /** Estado de la cola para el back-office: pendientes, agotados y contadores. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("pending",       outboxRepository.countByAttemptsLessThan(MAX_ATTEMPTS));
+        m.put("abandoned",     outboxRepository.countByAttemptsGreaterThanEqual(MAX_ATTEMPTS));
+        m.put("oldestPending", outboxRepository.findOldestPending(MAX_ATTEMPTS));
+        m.put("sent",          sent.get());
+        m.put("failures",      failures.get());
+        m.put("givenUp",       givenUp.get());
+        return m;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        drainer.scheduleWithFixedDelay(this::drain, 0, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainer.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void wakeUp() {
+        drainer.execute(this::drain);
+    }
+
+    // ── Worker ───────────────────────────────────────────────
+    private void drain() {
+        try {
+            List<EmailOutboxMessage> batch;
+            do {
+                batch = outboxRepository.findDue(MAX_ATTEMPTS, LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+
+                List<CompletableFuture<Void>> running = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i += MESSAGES_PER_SMTP) {
+                    List<EmailOutboxMessage> slice = batch.subList(i, Math.min(i + MESSAGES_PER_SMTP, batch.size()));
+                    running.add(CompletableFuture.runAsync(() -> send(slice), senders));
+                }
+                CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+            } while (batch.size() == BATCH_SIZE);
+        } catch (RuntimeException ex) {
+            System.err.println("[EmailOutbox] Error vaciando la cola: " + ex.getMessage());
+        }
+    }
+
+    // Un lote por conexión: JavaMailSender abre un único Transport para todo el array
+    private void send(List<EmailOutboxMessage> slice) {
+        // Resultado por posición. Se envían MimeMessage (igualdad por identidad): con
+        // SimpleMailMessage, dos correos idénticos del mismo lote comparten entrada en
+        // getFailedMessages() y el fallo de uno se atribuiría también al otro
+        Exception[]          errors   = new Exception[slice.size()];
+        List<MimeMessage>    mails    = new ArrayList<>();
+        Map<Object, Integer> position = new IdentityHashMap<>();
+        for (int i = 0; i < errors.length; i++) {
+            EmailOutboxMessage m = slice.get(i);
+            try {
+                MimeMessage mail = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(mail, StandardCharsets.UTF_8.name());
+                helper.setTo(m.getRecipient());
+                helper.setSubject(m.getSubject());
+                helper.setText(m.getBody());
+                mails.add(mail);
+                position.put(mail, i);
+            } catch (MessagingException ex) {
+                // Dirección mal formada: no sale, y cuenta como intento fallido
+                errors[i] = ex;
+            }
+        }
+
+        if (!mails.isEmpty()) {
+            try {
+                mailSender.send(mails.toArray(new MimeMessage[0]));
+            } catch (MailSendException ex) {
+                Map<Object, Exception> failed = ex.getFailedMessages();
+                if (failed.isEmpty()) position.values().forEach(i -> errors[i] = ex);
+                else failed.forEach((mail, error) -> errors[position.get(mail)] = error);
+            } catch (RuntimeException ex) {
+                // Conexión o autenticación: no ha salido ninguno
+                position.values().forEach(i -> errors[i] = ex);
+            }
+        }
+
+        List<EmailOutboxMessage> done = new ArrayList<>();
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] == null) done.add(slice.get(i));
+            else retryLater(slice.get(i), errors[i]);
+        }
+        if (!done.isEmpty()) {
+            outboxRepository.deleteAllInBatch(done);
+            sent.addAndGet(done.size());
+        }
+    }
+
+    private void retryLater(EmailOutboxMessage m, Exception ex) {
+        String msg = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+        m.setAttempts(m.getAttempts() + 1);
+        m.setLastError(msg.length() > 500 ? msg.substring(0, 500) : msg);
+        long backoff = Math.min(MAX_BACKOFF_SEC, BASE_BACKOFF_SEC << Math.min(m.getAttempts() - 1, 20));
+        m.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+        outboxRepository.save(m);
+        failures.incrementAndGet();
+
+        if (m.getAttempts() >= MAX_ATTEMPTS) {
+            givenUp.incrementAndGet();
+            System.err.println("[EmailOutbox] Se abandona el correo " + m.getId()
+                    + " («" + m.getSubject() + "») tras " + m.getAttempts() + " intentos: " + msg);
+        } else {
+            System.err.println("[EmailOutbox] Error enviando el correo " + m.getId()
+                    + " (intento " + m.getAttempts() + "), se reintenta en " + backoff + " s: " + msg);
+        }
+    }
+}
@@ -1,76 +1,66 @@
 package com.inmobiliaria.app.service;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Correos de consultas desde la web. No se envían aquí: quedan en el
+ * outbox dentro de la transacción y EmailOutbox los manda (y reintenta).
+ */
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final EmailOutbox emailOutbox;
 
     @Value("${app.contact.email}")
     private String contactEmail;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(EmailOutbox emailOutbox) {
+        this.emailOutbox = emailOutbox;
     }
 
-    @Async
+    @Transactional
     public void enviarConsultaInmueble(String propertyCode,
                                        String nombre,
                                        String telefono,
                                        String email,
                                        String mensaje) {
-        try {
-            SimpleMailMessage mail = new SimpleMailMessage();
-            mail.setTo(contactEmail);
-            mail.setSubject("Nueva consulta · Inmueble " + propertyCode);
-            mail.setText(
-                "═══════════════════════════════════\n" +
-                "  NUEVA CONSULTA — SOLVIA STORE BILBAO\n" +
-                "═══════════════════════════════════\n\n" +
-                "Inmueble:   " + propertyCode + "\n\n" +
-                "Nombre:     " + nombre + "\n" +
-                "Teléfono:   " + telefono + "\n" +
-                "Email:      " + (email != null && !email.isBlank() ? email : "No indicado") + "\n\n" +
-                "Mensaje:\n"   + (mensaje != null && !mensaje.isBlank() ? mensaje : "Sin mensaje") + "\n\n" +
-                "───────────────────────────────────\n" +
-                "Enviado desde solviastorebilbao.com"
-            );
-            mailSender.send(mail);
-        } catch (Exception e) {
-            System.err.println("[EmailService] Error enviando consulta inmueble: " + e.getMessage());
-        }
+        emailOutbox.enqueue(
+            contactEmail,
+            "Nueva consulta · Inmueble " + propertyCode,
+            "═══════════════════════════════════\n" +
+            "  NUEVA CONSULTA — SOLVIA STORE BILBAO\n" +
+            "═══════════════════════════════════\n\n" +
+            "Inmueble:   " + propertyCode + "\n\n" +
+            "Nombre:     " + nombre + "\n" +
+            "Teléfono:   " + telefono + "\n" +
+            "Email:      " + (email != null && !email.isBlank() ? email : "No indicado") + "\n\n" +
+            "Mensaje:\n"   + (mensaje != null && !mensaje.isBlank() ? mensaje : "Sin mensaje") + "\n\n" +
+            "───────────────────────────────────\n" +
+            "Enviado desde solviastorebilbao.com"
+        );
     }
 
-    @Async
+    @Transactional
     public void enviarConsultaGeneral(String nombre,
                                       String telefono,
                                       String email,
                                       String motivo,
                                       String mensaje) {
-        try {
-            SimpleMailMessage mail = new SimpleMailMessage();
-            mail.setTo(contactEmail);
-            mail.setSubject("Nueva consulta general – Solvia Store Bilbao");
-            mail.setText(
-                "═══════════════════════════════════\n" +
-                "  CONSULTA GENERAL — SOLVIA STORE BILBAO\n" +
-                "═══════════════════════════════════\n\n" +
-                "Nombre:    " + nombre + "\n" +
-                "Teléfono:  " + telefono + "\n" +
-                "Email:     " + (email != null && !email.isBlank() ? email : "No indicado") + "\n" +
-                "Motivo:    " + (motivo != null && !motivo.isBlank() ? motivo : "No indicado") + "\n\n" +
-                "Mensaje:\n" + (mensaje != null && !mensaje.isBlank() ? mensaje : "Sin mensaje") + "\n\n" +
-                "───────────────────────────────────\n" +
-                "Enviado desde solviastorebilbao.com"
-            );
-            mailSender.send(mail);
-        } catch (Exception e) {
-            System.err.println("[EmailService] Error enviando consulta general: " + e.getMessage());
-        }
+        emailOutbox.enqueue(
+            contactEmail,
+            "Nueva consulta general – Solvia Store Bilbao",
+            "═══════════════════════════════════\n" +
+            "  CONSULTA GENERAL — SOLVIA STORE BILBAO\n" +
+            "═══════════════════════════════════\n\n" +
+            "Nombre:    " + nombre + "\n" +
+            "Teléfono:  " + telefono + "\n" +
+            "Email:     " + (email != null && !email.isBlank() ? email : "No indicado") + "\n" +
+            "Motivo:    " + (motivo != null && !motivo.isBlank() ? motivo : "No indicado") + "\n\n" +
+            "Mensaje:\n" + (mensaje != null && !mensaje.isBlank() ? mensaje : "Sin mensaje") + "\n\n" +
+            "───────────────────────────────────\n" +
+            "Enviado desde solviastorebilbao.com"
+        );
     }
 }
@@ -0,0 +1,14 @@
+package com.inmobiliaria.app.service;
+
+/** Anchos de las versiones reducidas de una foto (srcset). */
+public enum ImageVariant {
+    THUMB(320),   // miniaturas de galería y back-office
+    CARD(640),    // tarjetas del catálogo
+    HERO(1280);   // foto principal de la ficha
+
+    private final int width;
+
+    ImageVariant(int width) { this.width = width; }
+
+    public int getWidth() { return width; }
+}
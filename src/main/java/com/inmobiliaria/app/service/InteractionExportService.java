@@ -0,0 +1,135 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.web.dto.InteractionFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportación CSV de /interesados. Las filas salen de un cursor de solo avance
+ * (proyección escalar, sin entidades en el contexto de persistencia) y se escriben
+ * en la respuesta según llegan: la memoria no crece con el número de filas.
+ */
+@Service
+public class InteractionExportService {
+
+    // Teléfonos y emails se agregan en la propia fila para no lanzar más queries
+    // mientras el cursor está abierto (MySQL no lo permite en modo streaming).
+    private static final String EXPORT_QUERY = """
+        select i.contactDate, i.status, i.channel,
+               c.fullName, c.companyName,
+               (select listagg(ph.phoneNumber, ' / ') within group (order by ph.position)
+                  from ClientPhone ph where ph.client = c),
+               (select listagg(e.email, ' / ') within group (order by e.position)
+                  from ClientEmail e where e.client = c),
+               p.propertyCode, p.propertyType, p.municipality,
+               i.solviaCode, i.ndaRequested, i.comments
+        from ClientPropertyInteraction i
+        join i.client c
+        join i.property p
+        where (:filtrarEstados = false or i.status in :statuses)
+          and (:channel is null or i.channel = :channel)
+          and (:from is null or i.contactDate >= :from)
+          and (:to is null or i.contactDate <= :to)
+          and (:ndaOnly = false or i.ndaRequested = true)
+          and (:filtrarTexto = false
+               or i.id in :interactionIds
+               or c.id in :clientIds
+               or p.id in :propertyIds)
+        order by i.contactDate desc, i.id desc
+    """;
+
+    private static final String[] HEADER = {
+            "Fecha", "Estado", "Canal", "Cliente", "Empresa", "Teléfonos", "Emails",
+            "Inmueble", "Tipo", "Municipio", "Código Solvia", "NDA", "Comentarios"
+    };
+
+    private static final DateTimeFormatter FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Connector/J solo hace streaming real con Integer.MIN_VALUE
+    @Value("${app.export.fetch-size:-2147483648}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public void writeCsv(InteractionFilter filter, Writer out) throws IOException {
+        // BOM para que Excel abra el UTF-8 con acentos; ';' como separador (Excel en español)
+        out.write('\uFEFF');
+        writeRow(out, HEADER);
+        if (filter.matchesNothing()) {
+            out.flush();
+            return;
+        }
+
+        try (Stream<Object[]> rows = entityManager.createQuery(EXPORT_QUERY, Object[].class)
+                .setParameter("filtrarEstados", filter.isStatusFilter())
+                .setParameter("statuses",       filter.getStatusesParam())
+                .setParameter("channel",        filter.getChannel())
+                .setParameter("from",           filter.getFrom())
+                .setParameter("to",             filter.getTo())
+                .setParameter("ndaOnly",        filter.isNdaOnly())
+                .setParameter("filtrarTexto",   filter.isTextFilter())
+                .setParameter("interactionIds", filter.getInteractionIdsParam())
+                .setParameter("clientIds",      filter.getClientIdsParam())
+                .setParameter("propertyIds",    filter.getPropertyIdsParam())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+
+            String[] cells = new String[HEADER.length];
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] r = it.next();
+                cells[0]  = r[0] == null ? "" : FECHA.format((LocalDate) r[0]);
+                cells[1]  = text(r[1]);
+                cells[2]  = text(r[2]);
+                cells[3]  = text(r[3]);
+                cells[4]  = text(r[4]);
+                cells[5]  = text(r[5]);
+                cells[6]  = text(r[6]);
+                cells[7]  = text(r[7]);
+                cells[8]  = text(r[8]);
+                cells[9]  = text(r[9]);
+                cells[10] = text(r[10]);
+                cells[11] = Boolean.TRUE.equals(r[11]) ? "Sí" : "No";
+                // Los comentarios pueden llevar HTML (<mark>): solo el texto
+                cells[12] = text(r[12]).replaceAll("<[^>]*>", "");
+                writeRow(out, cells);
+            }
+        }
+        out.flush();
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static void writeRow(Writer out, String[] cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) out.write(';');
+            out.write(escape(cells[i]));
+        }
+        out.write("\r\n");
+    }
+
+    // Comillas si hace falta; y un apóstrofo delante de =,+,-,@ para que Excel no lo evalúe como fórmula
+    private static String escape(String value) {
+        String v = value;
+        if (!v.isEmpty() && "=+-@".indexOf(v.charAt(0)) >= 0) v = "'" + v;
+        if (v.indexOf(';') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0) {
+            v = '"' + v.replace("\"", "\"\"") + '"';
+        }
+        return v;
+    }
+}
@@ -0,0 +1,221 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.*;
+import com.inmobiliaria.app.repo.ClientPhoneRepository;
+import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.repo.ClientRepository;
+import com.inmobiliaria.app.repo.LeadRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.web.dto.PublicPropertyDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Consultas de la web pública. La petición solo inserta el Lead (y el correo
+ * al outbox) en una transacción corta; tras el commit un worker lo asocia al
+ * cliente dueño del teléfono o crea un cliente potencial, y si la consulta es
+ * de un inmueble, la interacción con canal OTRO.
+ *
+ * Un único hilo de emparejamiento: dos consultas con el mismo teléfono nuevo
+ * no pueden crear dos clientes.
+ */
+@Service
+public class LeadService {
+
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    private final LeadRepository                      leadRepository;
+    private final ClientRepository                    clientRepository;
+    private final ClientPhoneRepository               phoneRepository;
+    private final PropertyRepository                  propertyRepository;
+    private final ClientPropertyInteractionRepository interactionRepository;
+    private final EmailService                        emailService;
+    private final TransactionTemplate                 tx;
+    private final ExecutorService                     matcher;
+
+    public LeadService(LeadRepository leadRepository,
+                       ClientRepository clientRepository,
+                       ClientPhoneRepository phoneRepository,
+                       PropertyRepository propertyRepository,
+                       ClientPropertyInteractionRepository interactionRepository,
+                       EmailService emailService,
+                       PlatformTransactionManager transactionManager) {
+        this.leadRepository        = leadRepository;
+        this.clientRepository      = clientRepository;
+        this.phoneRepository       = phoneRepository;
+        this.propertyRepository    = propertyRepository;
+        this.interactionRepository = interactionRepository;
+        this.emailService          = emailService;
+        this.tx                    = new TransactionTemplate(transactionManager);
+        this.matcher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "lead-matcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // ── Alta (camino rápido, en la petición) ────────────────
+    @Transactional
+    public Lead consultaInmueble(PublicPropertyDto property, String nombre, String telefono,
+                                 String email, String mensaje) {
+        Lead lead = newLead(nombre, telefono, email, null, mensaje);
+        lead.setPropertyId(property.getId());
+        lead.setPropertyCode(cut(property.getPropertyCode(), 60));
+        leadRepository.save(lead);
+
+        emailService.enviarConsultaInmueble(property.getPropertyCode(), nombre, telefono, email, mensaje);
+        matchAfterCommit(lead.getId());
+        return lead;
+    }
+
+    @Transactional
+    public Lead consultaGeneral(String nombre, String telefono, String email,
+                                String motivo, String mensaje) {
+        Lead lead = newLead(nombre, telefono, email, motivo, mensaje);
+        leadRepository.save(lead);
+
+        emailService.enviarConsultaGeneral(nombre, telefono, email, motivo, mensaje);
+        matchAfterCommit(lead.getId());
+        return lead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        List<Long> pending = leadRepository.findUnmatchedIds();
+        pending.forEach(id -> matcher.execute(() -> match(id)));
+        if (!pending.isEmpty()) {
+            System.err.println("[LeadService] Reanudando " + pending.size() + " consultas sin emparejar");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdownNow();
+    }
+
+    private void matchAfterCommit(Long leadId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() { matcher.execute(() -> match(leadId)); }
+        });
+    }
+
+    // ── Emparejamiento (worker) ─────────────────────────────
+    private void match(Long leadId) {
+        try {
+            tx.executeWithoutResult(status -> {
+                Lead lead = leadRepository.findById(leadId).orElse(null);
+                if (lead == null || lead.getMatchedAt() != null) return;
+
+                String phone = normalizePhone(lead.getPhone());
+                Client client = phone.isBlank() ? null
+                        : phoneRepository.findFirstByPhoneNumber(phone).map(ClientPhone::getClient).orElse(null);
+                if (client == null) {
+                    client = clientRepository.save(newClient(lead, phone));
+                    lead.setClientCreated(true);
+                }
+
+                if (lead.getPropertyId() != null) {
+                    Client owner = client;
+                    propertyRepository.findById(lead.getPropertyId())
+                            .ifPresent(property -> interactionRepository.save(newInteraction(lead, owner, property)));
+                }
+
+                lead.setClient(client);
+                lead.setMatchedAt(LocalDateTime.now());
+                lead.setMatchError(null);
+            });
+        } catch (RuntimeException ex) {
+            // Normalmente un teléfono dado de alta a la vez desde el back-office: se reintenta al arrancar
+            String msg = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            System.err.println("[LeadService] No se pudo emparejar la consulta " + leadId + ": " + msg);
+            try {
+                tx.executeWithoutResult(status -> leadRepository.findById(leadId)
+                        .ifPresent(l -> l.setMatchError(cut(msg, 500))));
+            } catch (RuntimeException ignored) {}
+        }
+    }
+
+    private static Client newClient(Lead lead, String phone) {
+        Client client = new Client();
+        client.setClientType(ClientType.PARTICULAR);
+        client.setFullName(lead.getFullName().isBlank() ? "Consulta web " + lead.getId() : lead.getFullName());
+        client.setCompanyName("");
+        client.setSolviaCode("");
+        client.setGeneralNotes("");
+        client.setMotivoContacto(lead.getMotivo() != null ? lead.getMotivo() : "");
+
+        if (!phone.isBlank()) {
+            ClientPhone p = new ClientPhone();
+            p.setClient(client);
+            p.setPhoneNumber(phone);
+            p.setPosition(1);
+            client.getPhones().add(p);
+        }
+        if (lead.getEmail() != null && EMAIL.matcher(lead.getEmail()).matches()) {
+            ClientEmail e = new ClientEmail();
+            e.setClient(client);
+            e.setEmail(lead.getEmail());
+            e.setPosition(1);
+            client.getEmails().add(e);
+        }
+        return client;
+    }
+
+    private static ClientPropertyInteraction newInteraction(Lead lead, Client client, Property property) {
+        ClientPropertyInteraction interaction = new ClientPropertyInteraction();
+        interaction.setClient(client);
+        interaction.setProperty(property);
+        interaction.setContactDate(lead.getCreatedAt().toLocalDate());
+        interaction.setChannel(ContactChannel.OTRO);
+        interaction.setStatus(InterestStatus.GRIS_SIN_CONTACTO);
+        // Los comentarios se pintan como HTML en el back-office: el texto público va escapado
+        String text = lead.getMessage() == null || lead.getMessage().isBlank()
+                ? "Consulta web (sin mensaje)"
+                : "Consulta web: " + HtmlUtils.htmlEscape(lead.getMessage());
+        interaction.setComments(cut(text, 2000));
+        return interaction;
+    }
+
+    // ── Helpers ───────────────────────────────────────────────
+    private static Lead newLead(String nombre, String telefono, String email, String motivo, String mensaje) {
+        Lead lead = new Lead();
+        lead.setFullName(cut(t(nombre), 140));
+        lead.setPhone(cut(t(telefono), 30));
+        lead.setEmail(blankToNull(cut(t(email), 140)));
+        lead.setMotivo(blankToNull(cut(t(motivo), 200)));
+        lead.setMessage(blankToNull(cut(t(mensaje), 2000)));
+        return lead;
+    }
+
+    private static String normalizePhone(String s) {
+        if (s == null) return "";
+        String trimmed = s.trim();
+        if (trimmed.isEmpty()) return "";
+        boolean hasDdi = trimmed.startsWith("+");
+        String digits  = trimmed.replaceAll("[^0-9]", "");
+        return hasDdi ? "+" + digits : digits;
+    }
+
+    private static String t(String s) { return s == null ? "" : s.trim(); }
+
+    private static String blankToNull(String s) { return s.isEmpty() ? null : s; }
+
+    private static String cut(String s, int max) {
+        return s != null && s.length() > max ? s.substring(0, max) : s;
+    }
+}
@@ -0,0 +1,141 @@
+package com.inmobiliaria.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Medios en disco local: {app.upload.dir}/{propertyId}/{uuid}.{ext}.
+ * Las fotos llevan además sus versiones reducidas ({uuid}-w{ancho}.jpg),
+ * generadas al guardar. Los sirve LocalMediaController bajo /uploads/**.
+ * Pensado para desarrollo, pruebas de carga sin red o un volumen compartido.
+ */
+@Service
+@ConditionalOnProperty(name = "app.media.storage", havingValue = "local")
+public class LocalMediaStorage implements MediaStorage {
+
+    public static final String URL_PREFIX = "/uploads/";
+
+    // publicId = "{propertyId}/{fichero}": nada de rutas relativas ni separadores extra
+    private static final Pattern PUBLIC_ID = Pattern.compile("\\d+/[A-Za-z0-9-]+(\\.[A-Za-z0-9]{1,10})?");
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final Path root;
+
+    public LocalMediaStorage(@Value("${app.upload.dir:uploads/property-media}") String uploadDir) {
+        this.root = Path.of(uploadDir).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public StoredMedia store(Long propertyId, Path file, String originalName, String mediaType) throws IOException {
+        String ext = "";
+        int dot = originalName.lastIndexOf('.');
+        if (dot > 0) {
+            String e = originalName.substring(dot + 1).toLowerCase(Locale.ROOT);
+            if (e.matches("[a-z0-9]{1,10}")) ext = "." + e;
+        }
+        String publicId = propertyId + "/" + UUID.randomUUID() + ext;
+
+        Path target = root.resolve(publicId);
+        Files.createDirectories(target.getParent());
+        // Copia y no move: el staging lo gestiona quien llama
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+
+        if ("IMAGE".equals(mediaType)) writeVariants(target, publicId);
+        return new StoredMedia(URL_PREFIX + publicId, publicId);
+    }
+
+    @Override
+    public void delete(String publicId, String mediaType) throws IOException {
+        Path path = resolve(publicId);
+        if (path != null) Files.deleteIfExists(path);
+        for (ImageVariant v : ImageVariant.values()) {
+            Path variant = resolve(variantId(publicId, v));
+            if (variant != null) Files.deleteIfExists(variant);
+        }
+    }
+
+    // Solo si se generó: las fotos más estrechas que el ancho se quedan con la original
+    @Override
+    public String variantUrl(String url, ImageVariant variant) {
+        if (!url.startsWith(URL_PREFIX)) return url;
+        String id   = variantId(url.substring(URL_PREFIX.length()), variant);
+        Path   path = resolve(id);
+        return path != null && Files.exists(path) ? URL_PREFIX + id : url;
+    }
+
+    // ── Versiones reducidas (JPEG; ImageIO no escribe WebP/AVIF) ──
+    private void writeVariants(Path original, String publicId) {
+        try {
+            BufferedImage src = ImageIO.read(original.toFile());
+            if (src == null) return; // formato que ImageIO no lee (HEIC...): solo la original
+
+            for (ImageVariant v : ImageVariant.values()) {
+                if (src.getWidth() <= v.getWidth()) continue;
+                int w = v.getWidth();
+                int h = Math.max(1, (int) Math.round((double) src.getHeight() * w / src.getWidth()));
+
+                BufferedImage out = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = out.createGraphics();
+                try {
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                    g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                    g.drawImage(src, 0, 0, w, h, null);
+                } finally {
+                    g.dispose();
+                }
+                writeJpeg(out, root.resolve(variantId(publicId, v)));
+            }
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("[LocalMediaStorage] Sin versiones reducidas para " + publicId + ": " + ex.getMessage());
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // "12/abc.png" → "12/abc-w640.jpg"
+    private static String variantId(String publicId, ImageVariant variant) {
+        int slash = publicId.lastIndexOf('/');
+        int dot   = publicId.lastIndexOf('.');
+        String base = dot > slash ? publicId.substring(0, dot) : publicId;
+        return base + "-w" + variant.getWidth() + ".jpg";
+    }
+
+    /** Fichero de un publicId, o null si no es un id válido de este almacén. */
+    public Path resolve(String publicId) {
+        if (publicId == null || !PUBLIC_ID.matcher(publicId).matches()) return null;
+        Path path = root.resolve(publicId).normalize();
+        return path.startsWith(root) ? path : null;
+    }
+}
@@ -0,0 +1,127 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.MediaDeletion;
+import com.inmobiliaria.app.repo.MediaDeletionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Borrado diferido de ficheros en el almacén de medios. Quien borra un
+ * PropertyMedia llama a {@link #enqueue} dentro de su transacción; tras el
+ * commit (y cada minuto, por si acaso) un worker vacía el outbox en paralelo.
+ * Los fallos se reintentan con espera creciente hasta {@link #MAX_ATTEMPTS}.
+ */
+@Service
+public class MediaDeletionOutbox {
+
+    static final int MAX_ATTEMPTS = 8;
+
+    private static final int  BATCH_SIZE      = 50;
+    private static final long POLL_SECONDS    = 60;
+    private static final long MAX_BACKOFF_MIN = 6 * 60;
+
+    private final MediaDeletionRepository  deletionRepository;
+    private final MediaStorage             mediaStorage;
+    private final ScheduledExecutorService drainer;
+    private final ExecutorService          deleters;
+
+    public MediaDeletionOutbox(MediaDeletionRepository deletionRepository,
+                               MediaStorage mediaStorage,
+                               @Value("${app.media.delete-workers:4}") int workers) {
+        this.deletionRepository = deletionRepository;
+        this.mediaStorage       = mediaStorage;
+        this.drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "media-delete-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger n = new AtomicInteger();
+        this.deleters = Executors.newFixedThreadPool(Math.max(1, workers), r -> {
+            Thread t = new Thread(r, "media-delete-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Solo registra el borrado; el fichero se destruye tras el commit
+    public void enqueue(String publicId, String mediaType) {
+        if (publicId == null || publicId.isBlank()) return;
+        deletionRepository.save(new MediaDeletion(publicId, mediaType));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { wakeUp(); }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        drainer.scheduleWithFixedDelay(this::drain, 0, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainer.shutdownNow();
+        deleters.shutdownNow();
+    }
+
+    private void wakeUp() {
+        drainer.execute(this::drain);
+    }
+
+    // ── Worker ───────────────────────────────────────────────
+    private void drain() {
+        try {
+            List<MediaDeletion> batch;
+            do {
+                batch = deletionRepository.findDue(MAX_ATTEMPTS, LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+
+                List<CompletableFuture<Void>> running = new ArrayList<>(batch.size());
+                for (MediaDeletion d : batch) {
+                    running.add(CompletableFuture.runAsync(() -> destroy(d), deleters));
+                }
+                CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+            } while (batch.size() == BATCH_SIZE);
+        } catch (RuntimeException ex) {
+            System.err.println("[MediaDeletionOutbox] Error vaciando el outbox: " + ex.getMessage());
+        }
+    }
+
+    private void destroy(MediaDeletion d) {
+        try {
+            mediaStorage.delete(d.getPublicId(), d.getMediaType());
+            deletionRepository.delete(d);
+        } catch (Exception ex) {
+            String msg = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            d.setAttempts(d.getAttempts() + 1);
+            d.setLastError(msg.length() > 500 ? msg.substring(0, 500) : msg);
+            long backoff = Math.min(MAX_BACKOFF_MIN, 1L << Math.min(d.getAttempts(), 20));
+            d.setNextAttemptAt(LocalDateTime.now().plusMinutes(backoff));
+            deletionRepository.save(d);
+            if (d.getAttempts() >= MAX_ATTEMPTS) {
+                System.err.println("[MediaDeletionOutbox] Se abandona el borrado de " + d.getPublicId()
+                        + " tras " + d.getAttempts() + " intentos: " + msg);
+            }
+        }
+    }
+}
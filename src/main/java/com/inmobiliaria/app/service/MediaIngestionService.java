@@ -0,0 +1,327 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.MediaUploadJob;
+import com.inmobiliaria.app.domain.MediaUploadStatus;
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.domain.PropertyMedia;
+import com.inmobiliaria.app.repo.MediaUploadJobRepository;
+import com.inmobiliaria.app.repo.PropertyMediaRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subida de medios en segundo plano. La petición solo copia los ficheros al
+ * directorio de staging y crea un {@link MediaUploadJob} por fichero; un pool
+ * acotado de workers los sube al {@link MediaStorage} en paralelo, reintenta
+ * con espera creciente y, al terminar, crea el PropertyMedia.
+ */
+@Service
+public class MediaIngestionService {
+
+    private static final int  MAX_ATTEMPTS       = 3;
+    private static final long RETRY_BASE_SECONDS = 10;
+    private static final int  COMPLETED_TTL_DAYS = 7;
+    private static final int  ABANDONED_TTL_DAYS = 1;
+
+    private final MediaUploadJobRepository jobRepository;
+    private final PropertyRepository       propertyRepository;
+    private final PropertyMediaRepository  mediaRepository;
+    private final MediaStorage             mediaStorage;
+    private final MediaDeletionOutbox      deletionOutbox;
+    private final PublicCatalogSnapshot    catalogSnapshot;
+    private final TransactionTemplate      tx;
+    private final Path                     stagingDir;
+    private final ScheduledExecutorService workers;
+
+    public MediaIngestionService(MediaUploadJobRepository jobRepository,
+                                 PropertyRepository propertyRepository,
+                                 PropertyMediaRepository mediaRepository,
+                                 MediaStorage mediaStorage,
+                                 MediaDeletionOutbox deletionOutbox,
+                                 PublicCatalogSnapshot catalogSnapshot,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.media.staging-dir:uploads/staging}") String stagingDir,
+                                 @Value("${app.media.workers:4}") int workers) {
+        this.jobRepository      = jobRepository;
+        this.propertyRepository = propertyRepository;
+        this.mediaRepository    = mediaRepository;
+        this.mediaStorage       = mediaStorage;
+        this.deletionOutbox     = deletionOutbox;
+        this.catalogSnapshot    = catalogSnapshot;
+        this.tx                 = new TransactionTemplate(transactionManager);
+        this.stagingDir         = Path.of(stagingDir).toAbsolutePath();
+
+        AtomicInteger n = new AtomicInteger();
+        this.workers = Executors.newScheduledThreadPool(Math.max(1, workers), r -> {
+            Thread t = new Thread(r, "media-upload-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // ── Encolar (hilo de la petición) ────────────────────────
+    public List<MediaUploadJob> enqueue(Property property, List<MultipartFile> files) throws IOException {
+        Files.createDirectories(stagingDir);
+
+        List<MediaUploadJob> jobs = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) continue;
+
+            Path staged = stagingDir.resolve(UUID.randomUUID().toString());
+            file.transferTo(staged);
+
+            MediaUploadJob job = new MediaUploadJob();
+            job.setProperty(property);
+            job.setOriginalName(file.getOriginalFilename() != null ? file.getOriginalFilename() : "file");
+            job.setContentType(file.getContentType() != null ? file.getContentType() : "");
+            job.setStagingPath(staged.toString());
+            jobs.add(jobRepository.save(job));
+        }
+        jobs.forEach(j -> submitAfterCommit(j.getId()));
+        return jobs;
+    }
+
+    // ── Subida por trozos (reanudable) ───────────────────────
+    // Se abre un trabajo RECIBIENDO con un fichero vacío en staging; los trozos se
+    // añaden en orden y commitChunked() lo pasa a la cola como cualquier otra subida.
+    public MediaUploadJob startChunked(Property property, String originalName,
+                                       String contentType, long totalSize) throws IOException {
+        Files.createDirectories(stagingDir);
+        Path staged = Files.createFile(stagingDir.resolve(UUID.randomUUID().toString()));
+
+        MediaUploadJob job = new MediaUploadJob();
+        job.setProperty(property);
+        job.setOriginalName(originalName);
+        job.setContentType(contentType);
+        job.setStagingPath(staged.toString());
+        job.setStatus(MediaUploadStatus.RECIBIENDO);
+        job.setTotalSize(totalSize);
+        return jobRepository.save(job);
+    }
+
+    /**
+     * Añade hasta {@code length} bytes en {@code offset}. Si el offset no coincide
+     * con lo ya recibido, u otra petición está escribiendo el mismo trabajo, no se
+     * escribe nada y devuelve vacío. Si la conexión se corta a mitad, lo recibido
+     * se conserva: el cliente pregunta el offset y sigue desde ahí.
+     */
+    public OptionalLong appendChunk(MediaUploadJob job, long offset,
+                                    InputStream in, long length) throws IOException {
+        try (FileChannel ch = FileChannel.open(Path.of(job.getStagingPath()), StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = ch.tryLock();
+            } catch (OverlappingFileLockException ex) {
+                lock = null;
+            }
+            if (lock == null || ch.size() != offset) return OptionalLong.empty();
+
+            try {
+                ch.position(offset);
+                OutputStream out = Channels.newOutputStream(ch);
+                byte[] buf = new byte[64 * 1024];
+                long remaining = length;
+                int n;
+                while (remaining > 0 && (n = in.read(buf, 0, (int) Math.min(buf.length, remaining))) != -1) {
+                    out.write(buf, 0, n);
+                    remaining -= n;
+                }
+            } finally {
+                job.setReceivedBytes(ch.size());
+                jobRepository.save(job);
+            }
+            return OptionalLong.of(ch.size());
+        }
+    }
+
+    // Todo recibido: a la cola de subida. false si faltan bytes.
+    public boolean commitChunked(MediaUploadJob job) {
+        if (job.getTotalSize() == null || job.getReceivedBytes() != job.getTotalSize()) return false;
+        job.setStatus(MediaUploadStatus.PENDIENTE);
+        jobRepository.save(job);
+        submitAfterCommit(job.getId());
+        return true;
+    }
+
+    // Al borrar un inmueble (dentro de su transacción): fuera sus trabajos;
+    // los ficheros de staging se borran solo si la transacción confirma
+    public void discardForProperty(Long propertyId) {
+        List<MediaUploadJob> jobs = jobRepository.findByPropertyId(propertyId);
+        if (jobs.isEmpty()) return;
+        jobRepository.deleteAllByPropertyIdInBulk(propertyId);
+
+        Runnable cleanup = () -> jobs.forEach(MediaIngestionService::deleteStaged);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { cleanup.run(); }
+            });
+        } else {
+            cleanup.run();
+        }
+    }
+
+    // ── Recuperación al arrancar ─────────────────────────────
+    // Lo que estaba PENDIENTE o SUBIENDO cuando se paró la app vuelve a la cola
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        try {
+            jobRepository.deleteByStatusAndUpdatedAtBefore(
+                    MediaUploadStatus.COMPLETADO, LocalDateTime.now().minusDays(COMPLETED_TTL_DAYS));
+            // Subidas por trozos que nadie terminó
+            LocalDateTime abandoned = LocalDateTime.now().minusDays(ABANDONED_TTL_DAYS);
+            for (MediaUploadJob j : jobRepository.findByStatusIn(List.of(MediaUploadStatus.RECIBIENDO))) {
+                if (j.getUpdatedAt().isBefore(abandoned)) {
+                    deleteStaged(j);
+                    jobRepository.delete(j);
+                }
+            }
+            List<MediaUploadJob> unfinished = jobRepository.findByStatusIn(
+                    List.of(MediaUploadStatus.PENDIENTE, MediaUploadStatus.SUBIENDO));
+            unfinished.forEach(j -> workers.execute(() -> process(j.getId())));
+            if (!unfinished.isEmpty()) {
+                System.err.println("[MediaIngestion] Reanudando " + unfinished.size() + " subidas pendientes");
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("[MediaIngestion] No se pudieron reanudar las subidas: " + ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Las subidas en curso quedan como SUBIENDO y se reanudan en el siguiente arranque
+        workers.shutdownNow();
+    }
+
+    // ── Worker ───────────────────────────────────────────────
+    private void submitAfterCommit(Long jobId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { workers.execute(() -> process(jobId)); }
+            });
+        } else {
+            workers.execute(() -> process(jobId));
+        }
+    }
+
+    private void process(Long jobId) {
+        MediaUploadJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null
+                || job.getStatus() == MediaUploadStatus.RECIBIENDO
+                || job.getStatus() == MediaUploadStatus.COMPLETADO
+                || job.getStatus() == MediaUploadStatus.ERROR) return;
+
+        Long   propertyId   = job.getProperty().getId();
+        String contentType  = job.getContentType() != null ? job.getContentType() : "";
+        String originalName = job.getOriginalName();
+        String mediaType    = mediaType(contentType);
+
+        StoredMedia stored = null;
+        try {
+            job.setStatus(MediaUploadStatus.SUBIENDO);
+            job.setAttempts(job.getAttempts() + 1);
+            job = jobRepository.save(job);
+
+            stored = mediaStorage.store(propertyId, Path.of(job.getStagingPath()),
+                    originalName, mediaType);
+
+            MediaUploadJob done  = job;
+            StoredMedia    saved = stored;
+            tx.executeWithoutResult(status -> {
+                PropertyMedia media = new PropertyMedia();
+                media.setProperty(propertyRepository.getReferenceById(propertyId));
+                media.setOriginalName(originalName);
+                media.setMediaType(mediaType);
+                media.setContentType(contentType);
+                media.setCloudinaryUrl(saved.getUrl());
+                media.setCloudinaryPublicId(saved.getPublicId());
+                mediaRepository.save(media);
+
+                done.setStatus(MediaUploadStatus.COMPLETADO);
+                done.setMediaId(media.getId());
+                done.setLastError(null);
+                jobRepository.save(done);
+            });
+        } catch (Exception ex) {
+            fail(job, stored, ex);
+            return;
+        }
+        // Ya confirmado: a partir de aquí el fichero subido pertenece al PropertyMedia
+        deleteStaged(job);
+        catalogSnapshot.invalidate();
+    }
+
+    private void fail(MediaUploadJob job, StoredMedia stored, Exception ex) {
+        // Lo subido no llegó a tener PropertyMedia: se destruye. Si hay reintento,
+        // se vuelve a subir desde staging; si el inmueble (y con él el trabajo) se
+        // borró mientras subía, no tiene dueño
+        if (stored != null) deletionOutbox.enqueue(stored.getPublicId(), mediaType(job.getContentType()));
+        if (!jobRepository.existsById(job.getId())) return;
+
+        String msg = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+        job.setLastError(msg.length() > 500 ? msg.substring(0, 500) : msg);
+
+        if (job.getAttempts() < MAX_ATTEMPTS) {
+            job.setStatus(MediaUploadStatus.PENDIENTE);
+            jobRepository.save(job);
+            long delay = RETRY_BASE_SECONDS << (job.getAttempts() - 1);
+            Long jobId = job.getId();
+            workers.schedule(() -> process(jobId), delay, TimeUnit.SECONDS);
+            System.err.println("[MediaIngestion] Fallo subiendo " + job.getOriginalName()
+                    + " (intento " + job.getAttempts() + "), reintento en " + delay + "s: " + msg);
+        } else {
+            job.setStatus(MediaUploadStatus.ERROR);
+            jobRepository.save(job);
+            deleteStaged(job);
+            System.err.println("[MediaIngestion] Subida descartada tras " + job.getAttempts()
+                    + " intentos: " + job.getOriginalName() + " — " + msg);
+        }
+    }
+
+    private static void deleteStaged(MediaUploadJob job) {
+        try {
+            Files.deleteIfExists(Path.of(job.getStagingPath()));
+        } catch (IOException ex) {
+            System.err.println("[MediaIngestion] No se pudo borrar " + job.getStagingPath() + ": " + ex.getMessage());
+        }
+    }
+
+    // ── Tipo interno según el content-type ──────────────────
+    private static String mediaType(String contentType) {
+        if (contentType.startsWith("video/"))         return "VIDEO";
+        if (contentType.equals("application/pdf"))   return "PDF";
+        if (contentType.startsWith("application/msword")
+                || contentType.startsWith("application/vnd")) return "DOCUMENT";
+        return "IMAGE";
+    }
+}
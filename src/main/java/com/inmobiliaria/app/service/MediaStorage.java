@@ -0,0 +1,26 @@
+package com.inmobiliaria.app.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Almacén de los ficheros de PropertyMedia. Por defecto Cloudinary; con
+ * app.media.storage=local se guardan en disco (app.upload.dir) y los sirve
+ * la propia aplicación bajo /uploads/**.
+ */
+public interface MediaStorage {
+
+    /**
+     * Guarda un fichero ya en disco. {@code mediaType} es el tipo interno
+     * (IMAGE, VIDEO, PDF, DOCUMENT); el fichero original no se toca.
+     */
+    StoredMedia store(Long propertyId, Path file, String originalName, String mediaType) throws IOException;
+
+    // publicId tal y como lo devolvió store()
+    void delete(String publicId, String mediaType) throws IOException;
+
+    /** URL de la versión reducida de una foto; la original si el almacén no la tiene. */
+    default String variantUrl(String url, ImageVariant variant) {
+        return url;
+    }
+}
@@ -0,0 +1,92 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.domain.PropertyMedia;
+import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.repo.PropertyMediaRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.repo.SupplierPropertyRepository;
+import com.inmobiliaria.app.repo.VisitRepository;
+import com.inmobiliaria.app.service.SearchIndex.Kind;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Borrado de un inmueble con todo lo que cuelga de él, en una transacción:
+ * un DELETE en bloque por tabla hija y los ficheros remotos al outbox, que
+ * los destruye tras el commit. Si algo falla no se borra nada.
+ */
+@Service
+public class PropertyDeletionService {
+
+    private final PropertyRepository                  propertyRepository;
+    private final PropertyMediaRepository             mediaRepository;
+    private final VisitRepository                     visitRepository;
+    private final ClientPropertyInteractionRepository interactionRepository;
+    private final SupplierPropertyRepository          supplierPropertyRepository;
+    private final MediaIngestionService               mediaIngestion;
+    private final MediaDeletionOutbox                 deletionOutbox;
+    private final SearchIndex                         searchIndex;
+    private final PublicCatalogSnapshot               catalogSnapshot;
+
+    public PropertyDeletionService(PropertyRepository propertyRepository,
+                                   PropertyMediaRepository mediaRepository,
+                                   VisitRepository visitRepository,
+                                   ClientPropertyInteractionRepository interactionRepository,
+                                   SupplierPropertyRepository supplierPropertyRepository,
+                                   MediaIngestionService mediaIngestion,
+                                   MediaDeletionOutbox deletionOutbox,
+                                   SearchIndex searchIndex,
+                                   PublicCatalogSnapshot catalogSnapshot) {
+        this.propertyRepository         = propertyRepository;
+        this.mediaRepository            = mediaRepository;
+        this.visitRepository            = visitRepository;
+        this.interactionRepository      = interactionRepository;
+        this.supplierPropertyRepository = supplierPropertyRepository;
+        this.mediaIngestion             = mediaIngestion;
+        this.deletionOutbox             = deletionOutbox;
+        this.searchIndex                = searchIndex;
+        this.catalogSnapshot            = catalogSnapshot;
+    }
+
+    // false si el inmueble no existe
+    @Transactional
+    public boolean deleteProperty(Long id) {
+        Property property = propertyRepository.findById(id).orElse(null);
+        if (property == null) return false;
+
+        // 1. Ficheros del almacén al outbox; filas property_media en bloque
+        for (PropertyMedia m : mediaRepository.findByPropertyId(id)) {
+            deletionOutbox.enqueue(m.getCloudinaryPublicId(), m.getMediaType());
+        }
+        mediaRepository.deleteAllByPropertyIdInBulk(id);
+
+        // 2. Subidas pendientes (y su staging tras el commit)
+        mediaIngestion.discardForProperty(id);
+
+        // 3. Visitas, vínculos con proveedores e interacciones.
+        //    Los DELETE en bloque no pasan por los listeners: el índice se avisa a mano.
+        visitRepository.deleteAllByPropertyIdInBulk(id);
+        supplierPropertyRepository.deleteAllByPropertyIdInBulk(id);
+        interactionRepository.findIdsByPropertyId(id)
+                .forEach(iid -> searchIndex.enqueue(Kind.INTERACTION, iid));
+        interactionRepository.deleteAllByPropertyIdInBulk(id);
+
+        // 4. El inmueble
+        propertyRepository.delete(property);
+        catalogSnapshot.invalidate();
+        return true;
+    }
+
+    // Un único medio desde la ficha del inmueble; false si no es de ese inmueble
+    @Transactional
+    public boolean deleteMedia(Long propertyId, Long mediaId) {
+        PropertyMedia media = mediaRepository.findById(mediaId).orElse(null);
+        if (media == null || !media.getProperty().getId().equals(propertyId)) return false;
+
+        deletionOutbox.enqueue(media.getCloudinaryPublicId(), media.getMediaType());
+        mediaRepository.delete(media);
+        catalogSnapshot.invalidate();
+        return true;
+    }
+}
@@ -0,0 +1,565 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.web.dto.PropertyCatalogDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Opciones de inmueble para los combos del back-office (alta de interés,
+ * nueva interacción...): los no vendidos, como PropertyCatalogDto, en una
+ * foto inmutable. Detrás de /api/catalog/search.
+ *
+ * Cada inmueble ocupa un hueco de un array; junto a él van dos índices en
+ * memoria que apuntan a esos huecos:
+ * <ul>
+ *   <li>prefijos: las palabras de código, tipo, municipio y dirección,
+ *       normalizadas y ordenadas, para términos de 1-2 letras;</li>
+ *   <li>trigramas: por cada trigrama, los huecos de los inmuebles que lo
+ *       contienen, para términos de 3 o más letras en cualquier parte de la
+ *       palabra ("bao" → Bilbao).</li>
+ * </ul>
+ * Los resultados salen ordenados por relevancia: código exacto, inicio del
+ * código, inicio de palabra y, por último, dentro de una palabra; a igual
+ * relevancia, por código.
+ *
+ * Se carga entera al arrancar. Después, cada escritura de Property
+ * (PropertyOptionsListener) encola su id tras el commit y un único hilo
+ * relee solo esos inmuebles y publica la foto siguiente, parcheando solo lo
+ * que les afecta (ver Options.patch); las lecturas nunca esperan ni tocan la BD.
+ * Se relee en lotes de {@value #BATCH} ids y, si la BD falla, se reintenta con
+ * espera creciente en vez de en bucle.
+ *
+ * Coste (PropertyOptionsBenchmark): parchear un cambio es ~1 ms con 10k
+ * inmuebles y ~10 ms con 100k, frente a 0,4 s y 2 s de reconstruir. La
+ * búsqueda en memoria gana a SQL en el tamaño real del catálogo (10k); con
+ * 100k o más, un término muy frecuente ("bao") puntúa todos sus aciertos y
+ * acaba siendo más lento que un LIKE con LIMIT.
+ */
+@Service
+public class PropertyOptionsCache {
+
+    private static final int GRAM = 3;
+
+    // Ids por query al releer: una importación grande no acaba en un IN enorme
+    private static final int  BATCH        = 500;
+    private static final long RETRY_MIN_MS = 1_000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    private final PropertyRepository       propertyRepository;
+    private final ScheduledExecutorService worker;
+
+    private volatile Options current;
+
+    private final Set<Long>     dirty     = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // Solo los toca el hilo del worker
+    private long retryMillis;
+    private long retryAt;
+
+    public PropertyOptionsCache(PropertyRepository propertyRepository) {
+        this.propertyRepository = propertyRepository;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "property-options");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        worker.execute(() -> {
+            try {
+                get();
+            } catch (RuntimeException ex) {
+                System.err.println("[PropertyOptionsCache] No se pudo cargar al arrancar: " + ex.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public Options get() {
+        Options o = current;
+        return o != null ? o : loadAll();
+    }
+
+    /** Inmuebles que contienen todos los términos de {@code text}, los más relevantes primero. */
+    public List<PropertyCatalogDto> search(String text, int limit) {
+        return get().search(text, limit);
+    }
+
+    /** Un inmueble ha cambiado: se relee tras el commit (o ya, si no hay transacción). */
+    public void changed(Long propertyId) {
+        if (propertyId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { markDirty(propertyId); }
+            });
+        } else {
+            markDirty(propertyId);
+        }
+    }
+
+    private void markDirty(Long propertyId) {
+        dirty.add(propertyId);
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) worker.execute(this::applyChanges);
+    }
+
+    // ── Worker ───────────────────────────────────────────────
+    private synchronized Options loadAll() {
+        if (current != null) return current;
+        // Lo cambiado antes de la query ya sale en ella
+        dirty.clear();
+        current = new Options(1, propertyRepository.findCatalogOptions().toArray(new PropertyCatalogDto[0]));
+        return current;
+    }
+
+    private void applyChanges() {
+        // Tras un fallo se espera (1 s, 2 s, 4 s... hasta 1 min) aunque sigan llegando cambios
+        long wait = retryAt - System.currentTimeMillis();
+        if (wait > 0) {
+            worker.schedule(this::applyChanges, wait, TimeUnit.MILLISECONDS);
+            return;
+        }
+        scheduled.set(false);
+
+        // Las ráfagas (importaciones, borrados...) se aplican en una sola foto por lote
+        List<Long> ids = dirty.stream().limit(BATCH).toList();
+        dirty.removeAll(ids);
+        if (ids.isEmpty()) return;
+
+        try {
+            synchronized (this) {
+                Options base = current;
+                if (base == null) return; // aún sin cargar: loadAll ya verá el estado nuevo
+                current = base.patch(ids, propertyRepository.findCatalogOptionsByIdIn(ids));
+            }
+            retryMillis = 0;
+        } catch (RuntimeException ex) {
+            retryMillis = retryMillis == 0 ? RETRY_MIN_MS : Math.min(retryMillis * 2, RETRY_MAX_MS);
+            retryAt     = System.currentTimeMillis() + retryMillis;
+            System.err.println("[PropertyOptionsCache] Error aplicando " + ids.size()
+                    + " cambios, se reintenta en " + retryMillis + " ms: " + ex.getMessage());
+            dirty.addAll(ids);
+        }
+        if (!dirty.isEmpty()) schedule();
+    }
+
+    // ── Normalización ────────────────────────────────────────
+    // Compilados una vez: se aplican a cada campo de cada fila al reconstruir
+    private static final Pattern MARKS     = Pattern.compile("\\p{M}");
+    private static final Pattern NON_WORDS = Pattern.compile("[^a-z0-9]+");
+
+    static String normalize(String s) {
+        if (s == null) return "";
+        String n = MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        return n.toLowerCase(Locale.ROOT);
+    }
+
+    static String[] words(String s) {
+        String n = NON_WORDS.matcher(normalize(s)).replaceAll(" ").trim();
+        return n.isEmpty() ? new String[0] : n.split(" ");
+    }
+
+    // ── Foto inmutable ───────────────────────────────────────
+    public static final class Options {
+        private static final int[] NONE = new int[0];
+
+        // Huecos libres tolerados antes de compactar con una reconstrucción completa
+        private static final int COMPACT_MIN = 1024;
+
+        private static final Comparator<PropertyCatalogDto> BY_CODE = Comparator.comparing(
+                PropertyCatalogDto::getPropertyCode, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final long                 version;
+        private final PropertyCatalogDto[] items;   // por hueco; null = hueco libre
+        private final String[]             codes;   // palabras del código unidas por espacio
+        private final String[]             texts;   // " palabra palabra ..." de los cuatro campos
+        private final int[]                order;   // huecos ocupados, en orden de código
+        private final int[]                rank;    // posición de cada hueco en order
+        private final String[]             keys;    // palabras ordenadas
+        private final int[]                owners;  // hueco de cada palabra
+        private final Map<String, int[]>   grams;   // trigrama → huecos (ascendentes)
+        // id → hueco. Solo lo usa patch(), con el lock del cache: pasa de una foto
+        // a la siguiente sin copiarse, las lecturas no lo tocan
+        private final Map<Long, Integer>   slots;
+
+        Options(long version, PropertyCatalogDto[] items) {
+            // Orden propio (no el collation de la BD): la carga inicial y los parches coinciden
+            Arrays.sort(items, BY_CODE);
+            this.version = version;
+            this.items   = items;
+            this.codes   = new String[items.length];
+            this.texts   = new String[items.length];
+            this.order   = new int[items.length];
+            this.rank    = new int[items.length];
+            this.slots   = new HashMap<>(items.length * 2);
+
+            Entries added = new Entries();
+            for (int i = 0; i < items.length; i++) {
+                added.index(i, items[i], codes, texts);
+                order[i] = i;
+                rank[i]  = i;
+                slots.put(items[i].getId(), i);
+            }
+
+            this.keys   = new String[added.keys.size()];
+            this.owners = new int[keys.length];
+            Integer[] byWord = added.byWord();
+            for (int i = 0; i < byWord.length; i++) {
+                keys[i]   = added.keys.get(byWord[i]);
+                owners[i] = added.owners.get(byWord[i]);
+            }
+
+            this.grams = new HashMap<>(added.grams.size() * 2);
+            added.grams.forEach((gram, postings) -> grams.put(gram, postings.toArray()));
+        }
+
+        private Options(long version, PropertyCatalogDto[] items, String[] codes, String[] texts,
+                        int[] order, int[] rank, String[] keys, int[] owners,
+                        Map<String, int[]> grams, Map<Long, Integer> slots) {
+            this.version = version;
+            this.items   = items;
+            this.codes   = codes;
+            this.texts   = texts;
+            this.order   = order;
+            this.rank    = rank;
+            this.keys    = keys;
+            this.owners  = owners;
+            this.grams   = grams;
+            this.slots   = slots;
+        }
+
+        public long getVersion() { return version; }
+        public int  size()       { return order.length; }
+
+        /**
+         * Foto siguiente: sin los {@code ids} cambiados y con sus filas actuales (las
+         * no vendidas). Los cambiados dejan su hueco libre y las filas nuevas van a
+         * huecos al final, así que solo se normalizan esas filas y solo se tocan las
+         * listas de sus trigramas; el resto son copias de arrays, O(N) sin ordenar
+         * nada (ver PropertyOptionsBenchmark). Con más huecos libres que ocupados se
+         * compacta reconstruyendo desde cero.
+         */
+        Options patch(List<Long> ids, List<PropertyCatalogDto> fresh) {
+            BitSet freed = new BitSet(items.length);
+            for (Long id : ids) {
+                Integer slot = slots.get(id);
+                if (slot != null) freed.set(slot);
+            }
+            PropertyCatalogDto[] added = fresh.toArray(new PropertyCatalogDto[0]);
+            Arrays.sort(added, BY_CODE);
+
+            int live     = order.length - freed.cardinality() + added.length;
+            int capacity = items.length + added.length;
+            if (capacity - live > Math.max(COMPACT_MIN, live)) {
+                List<PropertyCatalogDto> all = new ArrayList<>(live);
+                for (int slot : order) if (!freed.get(slot)) all.add(items[slot]);
+                all.addAll(fresh);
+                return new Options(version + 1, all.toArray(new PropertyCatalogDto[0]));
+            }
+
+            // Filas: se vacían los huecos liberados y las nuevas van detrás
+            int base = items.length;
+            PropertyCatalogDto[] nItems = Arrays.copyOf(items, capacity);
+            String[]             nCodes = Arrays.copyOf(codes, capacity);
+            String[]             nTexts = Arrays.copyOf(texts, capacity);
+            Entries removed = new Entries();
+            for (int s = freed.nextSetBit(0); s >= 0; s = freed.nextSetBit(s + 1)) {
+                removed.index(s, textWords(texts[s]));
+                nItems[s] = null;
+                nCodes[s] = null;
+                nTexts[s] = null;
+            }
+            Entries entries = new Entries();
+            for (int j = 0; j < added.length; j++) {
+                nItems[base + j] = added[j];
+                entries.index(base + j, added[j], nCodes, nTexts);
+            }
+
+            // Palabras, ordenadas por (palabra, hueco): cada entrada quitada se localiza
+            // por búsqueda binaria y las nuevas (huecos más altos) van al final de su palabra
+            int[] drop = new int[removed.keys.size()];
+            for (int i = 0; i < drop.length; i++) drop[i] = position(removed.keys.get(i), removed.owners.get(i));
+            Arrays.sort(drop);
+            Integer[] byWord   = entries.byWord();
+            int[]     at       = new int[byWord.length];
+            String[]  addKeys  = new String[byWord.length];
+            int[]     addOwner = new int[byWord.length];
+            for (int j = 0; j < at.length; j++) {
+                addKeys[j]  = entries.keys.get(byWord[j]);
+                addOwner[j] = entries.owners.get(byWord[j]);
+                at[j]       = position(addKeys[j], addOwner[j]);
+            }
+            Splice words   = new Splice(drop, at);
+            String[] nKeys   = words.apply(keys, addKeys, new String[keys.length - drop.length + at.length]);
+            int[]    nOwners = words.apply(owners, addOwner, new int[nKeys.length]);
+
+            // Trigramas: solo las listas de las filas quitadas o añadidas
+            Map<String, int[]> nGrams = new HashMap<>(grams);
+            Set<String> touched = new HashSet<>(removed.grams.keySet());
+            touched.addAll(entries.grams.keySet());
+            for (String gram : touched) {
+                int[] old  = grams.getOrDefault(gram, NONE);
+                int[] gone = removed.grams.containsKey(gram) ? removed.grams.get(gram).toArray() : NONE;
+                int[] more = entries.grams.containsKey(gram) ? entries.grams.get(gram).toArray() : NONE;
+                for (int i = 0; i < gone.length; i++) gone[i] = Arrays.binarySearch(old, gone[i]);
+                // Los huecos nuevos son los más altos: al final, la lista sigue ascendente
+                int[] end = new int[more.length];
+                Arrays.fill(end, old.length);
+                int[] list = new Splice(gone, end).apply(old, more, new int[old.length - gone.length + more.length]);
+                if (list.length == 0) nGrams.remove(gram);
+                else nGrams.put(gram, list);
+            }
+
+            // Orden de código: fuera las posiciones liberadas (rank), las nuevas por búsqueda binaria
+            int[] ranks = new int[freed.cardinality()];
+            int   r0    = 0;
+            for (int s = freed.nextSetBit(0); s >= 0; s = freed.nextSetBit(s + 1)) ranks[r0++] = rank[s];
+            Arrays.sort(ranks);
+            int[] before   = new int[added.length];
+            int[] newSlots = new int[added.length];
+            for (int j = 0; j < added.length; j++) {
+                before[j]   = codePosition(added[j]);
+                newSlots[j] = base + j;
+            }
+            int[] nOrder = new Splice(ranks, before).apply(order, newSlots, new int[live]);
+            int[] nRank  = new int[capacity];
+            for (int r = 0; r < nOrder.length; r++) nRank[nOrder[r]] = r;
+
+            // Al final, cuando ya no puede fallar nada: el mapa pasa a la foto nueva
+            for (int s = freed.nextSetBit(0); s >= 0; s = freed.nextSetBit(s + 1)) slots.remove(items[s].getId());
+            for (int k = 0; k < added.length; k++) slots.put(added[k].getId(), base + k);
+
+            return new Options(version + 1, nItems, nCodes, nTexts, nOrder, nRank,
+                    nKeys, nOwners, nGrams, slots);
+        }
+
+        List<PropertyCatalogDto> search(String text, int limit) {
+            String[] terms = words(text);
+            if (terms.length == 0 || order.length == 0) return List.of();
+
+            // Candidatos: intersección de los términos (prefijo si son cortos, trigramas si no)
+            BitSet hits = null;
+            for (String term : terms) {
+                BitSet matches = term.length() < GRAM ? prefix(term) : infix(term);
+                if (hits == null) hits = matches;
+                else hits.and(matches);
+                if (hits.isEmpty()) return List.of();
+            }
+
+            // Puntuación en los bits altos y posición en orden de código en los bajos
+            String whole  = String.join(" ", terms);
+            long[] ranked = new long[hits.cardinality()];
+            int    n      = 0;
+            for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+                int score = codes[i].equals(whole) ? 0 : 1;
+                for (String term : terms) score += rank(i, term);
+                ranked[n++] = ((long) score << 32) | rank[i];
+            }
+            Arrays.sort(ranked);
+
+            List<PropertyCatalogDto> out = new ArrayList<>(Math.min(limit, n));
+            for (int j = 0; j < n && out.size() < limit; j++) out.add(items[order[(int) ranked[j]]]);
+            return out;
+        }
+
+        // 0 = inicio del código, 1 = inicio de otra palabra, 2 = dentro de una palabra
+        private int rank(int i, String term) {
+            if (codes[i].startsWith(term)) return 0;
+            if (texts[i].contains(" " + term)) return 1;
+            return 2;
+        }
+
+        private BitSet prefix(String term) {
+            BitSet matches = new BitSet(items.length);
+            for (int i = lowerBound(term); i < keys.length && keys[i].startsWith(term); i++) matches.set(owners[i]);
+            return matches;
+        }
+
+        private BitSet infix(String term) {
+            // Se recorre la lista de huecos más corta; los trigramas solo descartan
+            int[] shortest = null;
+            for (int j = 0; j + GRAM <= term.length(); j++) {
+                int[] postings = grams.getOrDefault(term.substring(j, j + GRAM), NONE);
+                if (shortest == null || postings.length < shortest.length) shortest = postings;
+            }
+
+            BitSet matches = new BitSet(items.length);
+            for (int i : shortest) {
+                // Confirmación: los trigramas pueden coincidir en otro orden
+                if (texts[i].contains(term)) matches.set(i);
+            }
+            return matches;
+        }
+
+        // Primera palabra >= term (binarySearch no garantiza la primera de varias iguales)
+        private int lowerBound(String term) {
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(term) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        // Posición de (palabra, hueco) en keys/owners, o donde iría
+        private int position(String word, int owner) {
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int c   = keys[mid].compareTo(word);
+                if (c < 0 || (c == 0 && owners[mid] < owner)) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        // Primera posición de order cuyo código es mayor que el de p (a igual código,
+        // la fila nueva va detrás, como en la reconstrucción)
+        private int codePosition(PropertyCatalogDto p) {
+            int lo = 0, hi = order.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (BY_CODE.compare(items[order[mid]], p) <= 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    // Palabras, trigramas y textos de un lote de filas, antes de ordenarlos
+    private static final class Entries {
+        private final List<String>          keys   = new ArrayList<>();
+        private final List<Integer>         owners = new ArrayList<>();
+        private final Map<String, Postings> grams  = new HashMap<>();
+
+        void index(int slot, PropertyCatalogDto p, String[] codes, String[] texts) {
+            codes[slot] = String.join(" ", words(p.getPropertyCode()));
+
+            Set<String> ws = new LinkedHashSet<>();
+            for (String f : new String[] { p.getPropertyCode(), p.getPropertyType(),
+                                           p.getMunicipality(), p.getAddress() }) {
+                ws.addAll(Arrays.asList(words(f)));
+            }
+            texts[slot] = " " + String.join(" ", ws);
+
+            index(slot, ws);
+        }
+
+        void index(int slot, Iterable<String> ws) {
+            for (String w : ws) {
+                keys.add(w);
+                owners.add(slot);
+            }
+            for (String gram : gramsOf(ws)) grams.computeIfAbsent(gram, x -> new Postings()).add(slot);
+        }
+
+        void index(int slot, String[] ws) {
+            index(slot, Arrays.asList(ws));
+        }
+
+        // Índices de keys en orden alfabético; a igual palabra, por hueco (orden estable)
+        Integer[] byWord() {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparing(keys::get));
+            return order;
+        }
+    }
+
+    private static Set<String> gramsOf(Iterable<String> words) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String w : words) {
+            for (int j = 0; j + GRAM <= w.length(); j++) out.add(w.substring(j, j + GRAM));
+        }
+        return out;
+    }
+
+    // Palabras guardadas en texts (" palabra palabra ...")
+    private static String[] textWords(String text) {
+        return text.length() <= 1 ? new String[0] : text.substring(1).split(" ");
+    }
+
+    /**
+     * Copia de un array ordenado quitando las posiciones {@code drop} e insertando
+     * cada elemento nuevo j delante de la posición {@code at[j]} del array viejo
+     * (ambas ascendentes). Lo que no cambia se copia por tramos con arraycopy.
+     */
+    private static final class Splice {
+        private final int[] drop;
+        private final int[] at;
+
+        Splice(int[] drop, int[] at) {
+            this.drop = drop;
+            this.at   = at;
+        }
+
+        // src, added y dst son arrays del mismo tipo; dst ya tiene la longitud final
+        <A> A apply(A src, A added, A dst) {
+            int length = java.lang.reflect.Array.getLength(dst) - at.length + drop.length;
+            int s = 0, d = 0, i = 0, j = 0;
+            while (true) {
+                int next = Math.min(i < drop.length ? drop[i] : length, j < at.length ? at[j] : length);
+                System.arraycopy(src, s, dst, d, next - s);
+                d += next - s;
+                s  = next;
+                if (j < at.length && at[j] == s) {
+                    System.arraycopy(added, j++, dst, d++, 1);
+                } else if (i < drop.length && drop[i] == s) {
+                    s++;
+                    i++;
+                } else {
+                    return dst;
+                }
+            }
+        }
+    }
+
+    // Lista de int sin boxing para construir las posiciones de cada trigrama
+    private static final class Postings {
+        private int[] values = new int[4];
+        private int   size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray() { return Arrays.copyOf(values, size); }
+    }
+}
@@ -0,0 +1,31 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.Property;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de Property: cada alta, cambio o baja se relee en
+ * {@link PropertyOptionsCache}.
+ */
+@Component
+public class PropertyOptionsListener {
+
+    // Perezoso: la caché depende del repositorio, que depende de Hibernate
+    private final ObjectProvider<PropertyOptionsCache> optionsCache;
+
+    public PropertyOptionsListener(ObjectProvider<PropertyOptionsCache> optionsCache) {
+        this.optionsCache = optionsCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        PropertyOptionsCache cache = optionsCache.getIfAvailable();
+        if (cache != null && entity instanceof Property p) cache.changed(p.getId());
+    }
+}
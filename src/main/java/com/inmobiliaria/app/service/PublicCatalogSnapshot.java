@@ -0,0 +1,185 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.domain.PropertyMedia;
+import com.inmobiliaria.app.repo.PropertyMediaRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.web.dto.PublicMediaDto;
+import com.inmobiliaria.app.web.dto.PublicPropertyDto;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Foto inmutable (copy-on-write) de los inmuebles publicados y no vendidos.
+ * La web pública lee siempre de aquí; cualquier escritura sobre un inmueble
+ * o sus medios llama a {@link #invalidate()} y la siguiente lectura la reconstruye.
+ *
+ * Cada invalidación confirmada cambia además el sello {@link #etag()} /
+ * {@link #lastModified()}, con el que las páginas públicas responden 304
+ * sin reconstruir nada.
+ */
+@Service
+public class PublicCatalogSnapshot {
+
+    private final PropertyRepository      propertyRepository;
+    private final PropertyMediaRepository mediaRepository;
+    private final CoverImageResolver      coverImageResolver;
+    private final ResponsiveImages        responsiveImages;
+
+    private volatile Snapshot current;
+    private volatile boolean  stale = true;
+
+    // Sello de versión: arranque + nº de invalidaciones (la web cambia con cada despliegue)
+    private final String  bootStamp    = Long.toString(System.currentTimeMillis(), 36);
+    private final Object  stampLock    = new Object();
+    private volatile long generation   = 0;
+    private volatile long lastModified = System.currentTimeMillis() / 1000 * 1000;
+
+    public PublicCatalogSnapshot(PropertyRepository propertyRepository,
+                                 PropertyMediaRepository mediaRepository,
+                                 CoverImageResolver coverImageResolver,
+                                 ResponsiveImages responsiveImages) {
+        this.propertyRepository = propertyRepository;
+        this.mediaRepository    = mediaRepository;
+        this.coverImageResolver = coverImageResolver;
+        this.responsiveImages   = responsiveImages;
+    }
+
+    public Snapshot get() {
+        Snapshot s = current;
+        if (s == null || stale) s = rebuild();
+        return s;
+    }
+
+    /**
+     * ETag fuerte del catálogo público. Se lee antes que la foto: si cambia
+     * entre medias, la página sale con el sello anterior y el siguiente
+     * If-None-Match simplemente no coincide.
+     */
+    public String etag() {
+        return "\"cat-" + bootStamp + "-" + generation + "\"";
+    }
+
+    /** Instante (ms, a segundos enteros) de la última invalidación. */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    // Si hay transacción en curso, se marca como obsoleta tras el commit:
+    // así ninguna lectura concurrente reconstruye con datos sin confirmar.
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() { markStale(); }
+            });
+        } else {
+            markStale();
+        }
+    }
+
+    // Primero stale y después el sello: quien vea el sello nuevo reconstruye seguro.
+    // Last-Modified avanza al menos un segundo (If-Modified-Since no tiene más resolución).
+    private void markStale() {
+        stale = true;
+        synchronized (stampLock) {
+            long now = System.currentTimeMillis() / 1000 * 1000;
+            lastModified = Math.max(now, lastModified + 1000);
+            generation++;
+        }
+    }
+
+    private synchronized Snapshot rebuild() {
+        if (current != null && !stale) return current;
+        // Se limpia antes de cargar: una invalidación durante la carga vuelve a marcarla
+        stale = false;
+
+        try {
+            current = load(current == null ? 1 : current.getVersion() + 1);
+        } catch (RuntimeException ex) {
+            stale = true;
+            throw ex;
+        }
+        return current;
+    }
+
+    private Snapshot load(long version) {
+        List<Property> published = propertyRepository.findByPublicadoTrueAndSoldFalseOrderByIdDesc();
+
+        List<Long> ids = published.stream().map(Property::getId).toList();
+
+        // Dos queries en total, independientemente del número de inmuebles
+        Map<Long, String> covers = coverImageResolver.resolve(ids);
+        Map<Long, List<PublicMediaDto>> media = ids.isEmpty() ? Map.of() :
+                mediaRepository.findByPropertyIdInOrderByIdAsc(ids)
+                        .stream()
+                        .collect(Collectors.groupingBy(
+                                (PropertyMedia m) -> m.getProperty().getId(),
+                                Collectors.mapping(responsiveImages::media, Collectors.toList())));
+
+        List<PublicPropertyDto> listings = new ArrayList<>(published.size());
+        for (Property p : published) {
+            listings.add(responsiveImages.card(p, covers.get(p.getId())));
+        }
+
+        // Facetas del filtro: agregados en BD
+        Integer maxPrecio = propertyRepository.findMaxPrecioPublicado();
+        return new Snapshot(version, listings, media,
+                propertyRepository.findTiposPublicados(),
+                propertyRepository.findMunicipiosPublicados(),
+                propertyRepository.findProvinciasPublicadas(),
+                maxPrecio != null ? maxPrecio : 1_000_000);
+    }
+
+    // ── Foto inmutable ───────────────────────────────────────
+    public static final class Snapshot {
+        private final long                            version;
+        private final List<PublicPropertyDto>         listings;
+        private final Map<Long, PublicPropertyDto>    byId;
+        private final Map<Long, List<PublicMediaDto>> mediaById;
+        private final List<String>                    tipos;
+        private final List<String>                    municipios;
+        private final List<String>                    provincias;
+        private final int                             maxPrecio;
+
+        Snapshot(long version,
+                 List<PublicPropertyDto> listings,
+                 Map<Long, List<PublicMediaDto>> mediaById,
+                 List<String> tipos,
+                 List<String> municipios,
+                 List<String> provincias,
+                 int maxPrecio) {
+            this.version    = version;
+            this.listings   = List.copyOf(listings);
+            this.mediaById  = Map.copyOf(mediaById);
+            this.tipos      = List.copyOf(tipos);
+            this.municipios = List.copyOf(municipios);
+            this.provincias = List.copyOf(provincias);
+            this.maxPrecio  = maxPrecio;
+
+            Map<Long, PublicPropertyDto> idx = new LinkedHashMap<>();
+            listings.forEach(p -> idx.put(p.getId(), p));
+            this.byId = Map.copyOf(idx);
+        }
+
+        public long                    getVersion()    { return version; }
+        public List<PublicPropertyDto> getListings()   { return listings; }
+        public List<String>            getTipos()      { return tipos; }
+        public List<String>            getMunicipios() { return municipios; }
+        public List<String>            getProvincias() { return provincias; }
+        public int                     getMaxPrecio()  { return maxPrecio; }
+
+        public PublicPropertyDto find(Long id) { return byId.get(id); }
+
+        public List<PublicMediaDto> mediaOf(Long id) {
+            return mediaById.getOrDefault(id, List.of());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.domain.PropertyMedia;
+import com.inmobiliaria.app.web.dto.PublicMediaDto;
+import com.inmobiliaria.app.web.dto.PublicPropertyDto;
+import org.springframework.stereotype.Service;
+
+import java.util.StringJoiner;
+
+/**
+ * URLs de las versiones reducidas de una foto y su srcset. Cada almacén decide
+ * cómo se obtienen (transformación en Cloudinary, ficheros generados en local);
+ * si no hay versión reducida se usa la original.
+ */
+@Service
+public class ResponsiveImages {
+
+    private final MediaStorage mediaStorage;
+
+    public ResponsiveImages(MediaStorage mediaStorage) {
+        this.mediaStorage = mediaStorage;
+    }
+
+    public String url(String original, ImageVariant variant) {
+        if (original == null) return null;
+        return mediaStorage.variantUrl(original, variant);
+    }
+
+    // "url 320w, url 640w, ..."; null si no hay ninguna versión distinta de la original
+    public String srcset(String original) {
+        if (original == null) return null;
+        StringJoiner srcset = new StringJoiner(", ");
+        boolean any = false;
+        for (ImageVariant v : ImageVariant.values()) {
+            String url = mediaStorage.variantUrl(original, v);
+            if (url.equals(original)) continue;
+            srcset.add(url + " " + v.getWidth() + "w");
+            any = true;
+        }
+        return any ? srcset.toString() : null;
+    }
+
+    // ── DTOs de la web pública con sus URLs ya resueltas ─────
+    public PublicPropertyDto card(Property p, String coverUrl) {
+        return PublicPropertyDto.of(p, url(coverUrl, ImageVariant.CARD), srcset(coverUrl));
+    }
+
+    public PublicMediaDto media(PropertyMedia m) {
+        if (!"IMAGE".equals(m.getMediaType())) return PublicMediaDto.of(m, null, null, null);
+        String original = m.getCloudinaryUrl();
+        return PublicMediaDto.of(m, url(original, ImageVariant.THUMB),
+                url(original, ImageVariant.HERO), srcset(original));
+    }
+}
@@ -0,0 +1,478 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.Client;
+import com.inmobiliaria.app.domain.ClientEmail;
+import com.inmobiliaria.app.domain.ClientPhone;
+import com.inmobiliaria.app.domain.ClientPropertyInteraction;
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.repo.ClientEmailRepository;
+import com.inmobiliaria.app.repo.ClientPhoneRepository;
+import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.repo.ClientRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.CharTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.LockObtainFailedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Índice de texto completo (Lucene, en disco) sobre clientes, inmuebles e interacciones.
+ * Los buscadores del back-office consultan aquí y después cargan de BD solo los ids
+ * devueltos. Se actualiza de forma incremental tras cada commit ({@link SearchIndexListener})
+ * y se reconstruye entero al arrancar para recoger cambios hechos fuera de JPA.
+ * Las búsquedas ignoran mayúsculas y acentos: "perez" encuentra "Pérez".
+ *
+ * Si una actualización o la reconstrucción fallan (BD caída, disco lleno...),
+ * no se pierden: se reintentan con espera creciente y, mientras tanto, el índice
+ * se declara desfasado ({@link #isStale()}, GET /api/search-index).
+ */
+@Service
+public class SearchIndex {
+
+    public enum Kind { CLIENT, PROPERTY, INTERACTION }
+
+    // ── Campos buscables ─────────────────────────────────────
+    public static final String NOMBRE      = "nombre";      // cliente: nombre + empresa
+    public static final String SOLVIA      = "solvia";      // cliente e interacción
+    public static final String TELEFONO    = "telefono";
+    public static final String EMAIL       = "email";
+    public static final String CODIGO      = "codigo";      // inmueble
+    public static final String TIPO        = "tipo";
+    public static final String DIRECCION   = "direccion";
+    public static final String MUNICIPIO   = "municipio";
+    public static final String PROVINCIA   = "provincia";
+    public static final String COMENTARIOS = "comentarios"; // interacción
+    public static final String CANAL       = "canal";
+
+    private static final String F_KEY  = "_key";
+    private static final String F_KIND = "_kind";
+    private static final String F_ID   = "_id";
+
+    private static final int  BATCH_SIZE   = 500;
+    private static final long RETRY_MIN_MS = 1_000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    /**
+     * Tope de aciertos por búsqueda. Cada acierto viaja como un parámetro del
+     * {@code IN} de la consulta de la página (MySQL admite 65.535 por sentencia),
+     * así que una búsqueda con más aciertos se corta y se avisa de que hay que
+     * afinarla ({@link Hits#truncated()}).
+     */
+    public static final int MAX_HITS = 2_000;
+
+    private final ClientRepository                    clientRepository;
+    private final ClientPhoneRepository               phoneRepository;
+    private final ClientEmailRepository               emailRepository;
+    private final PropertyRepository                  propertyRepository;
+    private final ClientPropertyInteractionRepository interactionRepository;
+
+    private final Analyzer        analyzer = new TextoAnalyzer();
+    private final Directory       directory;
+    private final IndexWriter     writer;
+    private final SearcherManager searcherManager;
+
+    // Un único hilo escribe en el índice: las actualizaciones quedan en orden
+    private final ScheduledExecutorService writerThread = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-index");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Pendiente de reintento. Solo los toca el hilo del índice
+    private final Map<Kind, Set<Long>> failed = new EnumMap<>(Kind.class);
+    private boolean rebuildPending;
+    private boolean retryScheduled;
+    private long    retryMillis;
+
+    // Para quien consulta el estado desde fuera
+    private volatile boolean stale;
+    private volatile int     pendingIds;
+    private volatile String  lastError;
+
+    public SearchIndex(ClientRepository clientRepository,
+                       ClientPhoneRepository phoneRepository,
+                       ClientEmailRepository emailRepository,
+                       PropertyRepository propertyRepository,
+                       ClientPropertyInteractionRepository interactionRepository,
+                       @Value("${app.search.index-dir:data/search-index}") String indexDir) {
+        this.clientRepository      = clientRepository;
+        this.phoneRepository       = phoneRepository;
+        this.emailRepository       = emailRepository;
+        this.propertyRepository    = propertyRepository;
+        this.interactionRepository = interactionRepository;
+
+        try {
+            Directory dir = FSDirectory.open(Paths.get(indexDir));
+            IndexWriter w;
+            try {
+                w = new IndexWriter(dir, new IndexWriterConfig(analyzer));
+            } catch (LockObtainFailedException ex) {
+                // Otra instancia tiene el directorio: se trabaja con un índice en memoria
+                System.err.println("[SearchIndex] " + indexDir + " bloqueado, usando índice en memoria");
+                dir.close();
+                dir = new ByteBuffersDirectory();
+                w   = new IndexWriter(dir, new IndexWriterConfig(analyzer));
+            }
+            this.directory       = dir;
+            this.writer          = w;
+            this.searcherManager = new SearcherManager(w, null);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo abrir el índice de búsqueda en " + indexDir, ex);
+        }
+    }
+
+    // ── Búsqueda ─────────────────────────────────────────────
+
+    /** Ids encontrados (como mucho {@link #MAX_HITS}); {@code truncated} si había más. */
+    public record Hits(Set<Long> ids, boolean truncated) {
+        public boolean isEmpty() { return ids.isEmpty(); }
+    }
+
+    /**
+     * Ids de las entidades de {@code kind} en las que cada palabra de {@code text}
+     * aparece (como prefijo) en alguno de {@code fields}, hasta {@link #MAX_HITS}.
+     * El conjunto es nuevo y modificable; vacío si el texto no tiene palabras buscables.
+     */
+    public Hits search(Kind kind, String text, String... fields) {
+        List<String> tokens = analyze(text);
+        if (tokens.isEmpty() || fields.length == 0) return new Hits(new LinkedHashSet<>(), false);
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(F_KIND, kind.name())), Occur.FILTER);
+        for (String token : tokens) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (String field : fields) {
+                anyField.add(new PrefixQuery(new Term(field, token)), Occur.SHOULD);
+            }
+            query.add(anyField.build(), Occur.FILTER);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // Sin puntuación: se recorre hasta llenar el tope y se para
+                IdCollector ids = new IdCollector();
+                searcher.search(query.build(), ids);
+                return new Hits(ids.ids, ids.truncated);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // ── Actualización incremental ────────────────────────────
+
+    /**
+     * Marca una entidad para reindexar. Dentro de una transacción se acumula y se
+     * aplica tras el commit (una sola vez por entidad); si hay rollback no se toca el índice.
+     */
+    public void enqueue(Kind kind, Long id) {
+        if (id == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Kind, Set<Long>> single = new EnumMap<>(Kind.class);
+            single.put(kind, Set.of(id));
+            writerThread.execute(() -> apply(single));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Kind, Set<Long>> pending = (Map<Kind, Set<Long>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Kind, Set<Long>> batch = new EnumMap<>(Kind.class);
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SearchIndex.this);
+                    if (status == STATUS_COMMITTED) writerThread.execute(() -> apply(batch));
+                }
+            });
+            pending = batch;
+        }
+        pending.computeIfAbsent(kind, k -> new LinkedHashSet<>()).add(id);
+    }
+
+    private void apply(Map<Kind, Set<Long>> batch) {
+        // La reconstrucción pendiente lee la BD entera: ya los recogerá
+        if (rebuildPending) return;
+        try {
+            for (Map.Entry<Kind, Set<Long>> e : batch.entrySet()) {
+                List<Long> ids = new ArrayList<>(e.getValue());
+                for (Long id : ids) writer.deleteDocuments(key(e.getKey(), id));
+                for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                    writer.addDocuments(load(e.getKey(), ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))));
+                }
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+            if (failed.isEmpty()) recovered();
+        } catch (Exception ex) {
+            // Se repite entero más tarde: borrar y volver a añadir deja el mismo estado
+            batch.forEach((kind, ids) -> failed.computeIfAbsent(kind, k -> new LinkedHashSet<>()).addAll(ids));
+            pendingIds = failed.values().stream().mapToInt(Set::size).sum();
+            failing("Error actualizando el índice", ex);
+        }
+    }
+
+    // ── Reconstrucción completa ──────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        writerThread.execute(this::rebuild);
+    }
+
+    private void rebuild() {
+        try {
+            writer.deleteAll();
+            for (Kind kind : Kind.values()) {
+                List<Long> ids = allIds(kind);
+                for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                    writer.addDocuments(load(kind, ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))));
+                }
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+            // Lo que había fallado antes ya está en la BD que se acaba de leer
+            rebuildPending = false;
+            failed.clear();
+            recovered();
+        } catch (Exception ex) {
+            rebuildPending = true;
+            failing("Error reconstruyendo el índice", ex);
+        }
+    }
+
+    // ── Reintentos ───────────────────────────────────────────
+
+    /** ¿Falta en el índice algún cambio (o la reconstrucción) por un error que se está reintentando? */
+    public boolean isStale() {
+        return stale;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("stale",      stale);
+        m.put("pendingIds", pendingIds);
+        m.put("lastError",  lastError);
+        return m;
+    }
+
+    private void failing(String what, Exception ex) {
+        stale     = true;
+        lastError = what + ": " + ex.getMessage();
+        if (retryScheduled) return;
+        // 1 s, 2 s, 4 s... hasta 1 min
+        retryMillis    = retryMillis == 0 ? RETRY_MIN_MS : Math.min(retryMillis * 2, RETRY_MAX_MS);
+        retryScheduled = true;
+        writerThread.schedule(this::retry, retryMillis, TimeUnit.MILLISECONDS);
+        System.err.println("[SearchIndex] " + lastError + "; se reintenta en " + retryMillis + " ms");
+    }
+
+    private void retry() {
+        retryScheduled = false;
+        if (rebuildPending) {
+            rebuild();
+        } else if (!failed.isEmpty()) {
+            Map<Kind, Set<Long>> batch = new EnumMap<>(failed);
+            failed.clear();
+            apply(batch);
+        }
+    }
+
+    private void recovered() {
+        retryMillis = 0;
+        pendingIds  = 0;
+        stale       = false;
+    }
+
+    private List<Long> allIds(Kind kind) {
+        return switch (kind) {
+            case CLIENT      -> clientRepository.findAllIds();
+            case PROPERTY    -> propertyRepository.findAllIds();
+            case INTERACTION -> interactionRepository.findAllIds();
+        };
+    }
+
+    // ── Documentos ───────────────────────────────────────────
+
+    // Las entidades que ya no existen simplemente no generan documento
+    private List<Document> load(Kind kind, List<Long> ids) {
+        List<Document> docs = new ArrayList<>(ids.size());
+        switch (kind) {
+            case CLIENT -> {
+                Map<Long, List<ClientPhone>> phones = phoneRepository
+                        .findByClient_IdInOrderByClient_IdAscPositionAsc(ids).stream()
+                        .collect(Collectors.groupingBy(p -> p.getClient().getId()));
+                Map<Long, List<ClientEmail>> emails = emailRepository
+                        .findByClient_IdInOrderByClient_IdAscPositionAsc(ids).stream()
+                        .collect(Collectors.groupingBy(e -> e.getClient().getId()));
+                for (Client c : clientRepository.findAllById(ids)) {
+                    Document d = newDocument(Kind.CLIENT, c.getId());
+                    addText(d, NOMBRE, c.getFullName());
+                    addText(d, NOMBRE, c.getCompanyName());
+                    addText(d, SOLVIA, c.getSolviaCode());
+                    for (ClientPhone p : phones.getOrDefault(c.getId(), List.of())) {
+                        addText(d, TELEFONO, phoneSuffixes(p.getPhoneNumber()));
+                    }
+                    for (ClientEmail e : emails.getOrDefault(c.getId(), List.of())) {
+                        addText(d, EMAIL, e.getEmail());
+                    }
+                    docs.add(d);
+                }
+            }
+            case PROPERTY -> {
+                for (Property p : propertyRepository.findAllById(ids)) {
+                    Document d = newDocument(Kind.PROPERTY, p.getId());
+                    addText(d, CODIGO,    p.getPropertyCode());
+                    addText(d, TIPO,      p.getPropertyType());
+                    addText(d, DIRECCION, p.getAddress());
+                    addText(d, MUNICIPIO, p.getMunicipality());
+                    addText(d, PROVINCIA, p.getProvince());
+                    docs.add(d);
+                }
+            }
+            case INTERACTION -> {
+                for (ClientPropertyInteraction i : interactionRepository.findAllById(ids)) {
+                    Document d = newDocument(Kind.INTERACTION, i.getId());
+                    // Los comentarios pueden llevar HTML (<mark>): se indexa solo el texto
+                    addText(d, COMENTARIOS, i.getComments() == null ? null
+                            : i.getComments().replaceAll("<[^>]*>", " "));
+                    addText(d, SOLVIA, i.getSolviaCode());
+                    addText(d, CANAL,  i.getChannel() == null ? null : i.getChannel().name());
+                    docs.add(d);
+                }
+            }
+        }
+        return docs;
+    }
+
+    private static Document newDocument(Kind kind, Long id) {
+        Document d = new Document();
+        d.add(new StringField(F_KEY,  kind.name() + ":" + id, Field.Store.NO));
+        d.add(new StringField(F_KIND, kind.name(), Field.Store.NO));
+        d.add(new StoredField(F_ID, id));
+        return d;
+    }
+
+    private static Term key(Kind kind, Long id) {
+        return new Term(F_KEY, kind.name() + ":" + id);
+    }
+
+    private static void addText(Document d, String field, String value) {
+        if (value != null && !value.isBlank()) d.add(new TextField(field, value, Field.Store.NO));
+    }
+
+    // Se indexan todos los sufijos de los dígitos: "222" encuentra "600 111 222"
+    private static String phoneSuffixes(String phone) {
+        if (phone == null) return null;
+        String digits = phone.replaceAll("\\D", "");
+        StringBuilder sb = new StringBuilder(digits);
+        for (int i = 1; i + 3 <= digits.length(); i++) sb.append(' ').append(digits, i, digits.length());
+        return sb.toString();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) return tokens;
+        try (TokenStream ts = analyzer.tokenStream("", text)) {
+            CharTermAttribute term = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) tokens.add(term.toString());
+            ts.end();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return tokens;
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        writerThread.shutdown();
+        writerThread.awaitTermination(10, TimeUnit.SECONDS);
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    // Lee el _id guardado de cada documento que casa, hoja a hoja, hasta MAX_HITS
+    private static final class IdCollector extends SimpleCollector {
+        private final Set<Long>   ids    = new LinkedHashSet<>();
+        private final Set<String> fields = Set.of(F_ID);
+        private StoredFields      stored;
+        private boolean           truncated;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            if (truncated) throw new CollectionTerminatedException();
+            stored = context.reader().storedFields();
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (ids.size() == MAX_HITS) {
+                truncated = true;
+                throw new CollectionTerminatedException();
+            }
+            ids.add(stored.document(doc, fields).getField(F_ID).numericValue().longValue());
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+
+    // Palabras = letras y dígitos; minúsculas y sin acentos (á→a, ñ→n, ü→u)
+    private static final class TextoAnalyzer extends Analyzer {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = CharTokenizer.fromTokenCharPredicate(Character::isLetterOrDigit);
+            TokenStream stream  = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+    }
+}
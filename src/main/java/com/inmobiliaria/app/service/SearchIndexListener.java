@@ -0,0 +1,48 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.Client;
+import com.inmobiliaria.app.domain.ClientEmail;
+import com.inmobiliaria.app.domain.ClientPhone;
+import com.inmobiliaria.app.domain.ClientPropertyInteraction;
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.service.SearchIndex.Kind;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de las entidades indexadas: cada alta, cambio o baja se encola en
+ * {@link SearchIndex}. Teléfonos y emails reindexan a su cliente.
+ */
+@Component
+public class SearchIndexListener {
+
+    // Perezoso: el índice depende de los repositorios, que dependen de Hibernate
+    private final ObjectProvider<SearchIndex> searchIndex;
+
+    public SearchIndexListener(ObjectProvider<SearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        SearchIndex index = searchIndex.getIfAvailable();
+        if (index == null) return;
+
+        if (entity instanceof Client c) {
+            index.enqueue(Kind.CLIENT, c.getId());
+        } else if (entity instanceof ClientPhone p && p.getClient() != null) {
+            index.enqueue(Kind.CLIENT, p.getClient().getId());
+        } else if (entity instanceof ClientEmail e && e.getClient() != null) {
+            index.enqueue(Kind.CLIENT, e.getClient().getId());
+        } else if (entity instanceof Property p) {
+            index.enqueue(Kind.PROPERTY, p.getId());
+        } else if (entity instanceof ClientPropertyInteraction i) {
+            index.enqueue(Kind.INTERACTION, i.getId());
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.inmobiliaria.app.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inmobiliaria.app.web.dto.PublicPropertyDto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Copia estática de la web pública en {app.static-site.dir}:
+ * <pre>
+ *   index.html                 ← /
+ *   catalogo/index.html        ← /catalogo
+ *   catalogo/{id}/index.html   ← /catalogo/{id}
+ * </pre>
+ * cada una con su .html.gz al lado (gzip_static de nginx). La sirve
+ * StaticSiteFilter o un nginx delante; lo que no está aquí (filtros,
+ * páginas siguientes, ?enviado...) sigue yendo a la aplicación.
+ *
+ * Las páginas se piden a la propia aplicación por HTTP: salen exactamente
+ * igual que en vivo. Cada pocos segundos se compara el sello del catálogo;
+ * si ha cambiado se repintan home y catálogo y solo las fichas cuyo
+ * contenido (inmueble + medios) ha cambiado, y se borran las despublicadas.
+ */
+@Service
+public class StaticSiteGenerator {
+
+    /**
+     * Cabecera de las peticiones internas: StaticSiteFilter las deja pasar a la
+     * app. Solo vale con el token de este arranque (ver {@link #isRenderToken}).
+     */
+    public static final String RENDER_HEADER = "X-Static-Render";
+
+    private static final long POLL_SECONDS = 5;
+
+    private final PublicCatalogSnapshot    catalogSnapshot;
+    private final ObjectMapper             objectMapper;
+    private final boolean                  enabled;
+    private final Path                     root;
+    private final HttpClient               http;
+    private final ScheduledExecutorService worker;
+    private final byte[]                   renderToken;
+
+    // Solo los toca el hilo del worker
+    private final Map<Long, String> rendered = new HashMap<>();
+    private String renderedEtag;
+
+    private volatile int port = -1;
+
+    public StaticSiteGenerator(PublicCatalogSnapshot catalogSnapshot,
+                               ObjectMapper objectMapper,
+                               @Value("${app.static-site.enabled:false}") boolean enabled,
+                               @Value("${app.static-site.dir:data/static-site}") String dir) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.objectMapper    = objectMapper;
+        this.enabled         = enabled;
+        this.root            = Path.of(dir).toAbsolutePath().normalize();
+        this.http            = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "static-site");
+            t.setDaemon(true);
+            return t;
+        });
+        // Aleatorio en cada arranque y nunca sale del proceso
+        this.renderToken = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public Path    getRoot()   { return root; }
+
+    /** ¿Es {@code value} el token de este arranque? Comparación en tiempo constante. */
+    public boolean isRenderToken(String value) {
+        return value != null && MessageDigest.isEqual(renderToken, value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @EventListener(WebServerInitializedEvent.class)
+    public void onWebServer(WebServerInitializedEvent event) {
+        port = event.getWebServer().getPort();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        if (port <= 0) {
+            System.err.println("[StaticSiteGenerator] Sin servidor HTTP: no se genera la web estática");
+            return;
+        }
+        worker.scheduleWithFixedDelay(this::refresh, 0, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    // ── Worker ───────────────────────────────────────────────
+    private void refresh() {
+        try {
+            // El sello se lee antes que la foto (ver PublicCatalogSnapshot.etag())
+            String etag = catalogSnapshot.etag();
+            if (etag.equals(renderedEtag)) return;
+
+            PublicCatalogSnapshot.Snapshot snapshot = catalogSnapshot.get();
+            int written = 0;
+            int failed  = 0;
+
+            Set<Long> live = new HashSet<>();
+            for (PublicPropertyDto p : snapshot.getListings()) {
+                live.add(p.getId());
+                String fingerprint = fingerprint(p, snapshot);
+                if (fingerprint.equals(rendered.get(p.getId())) && Files.exists(pageFile("/catalogo/" + p.getId()))) {
+                    continue;
+                }
+                if (render("/catalogo/" + p.getId())) {
+                    rendered.put(p.getId(), fingerprint);
+                    written++;
+                } else {
+                    rendered.remove(p.getId());
+                    failed++;
+                }
+            }
+
+            // Home y primera página del catálogo dependen del conjunto: siempre
+            if (render("/"))         written++; else failed++;
+            if (render("/catalogo")) written++; else failed++;
+
+            int removed = removeUnpublished(live);
+            // Con alguna página fallida el sello no avanza: se reintenta en la siguiente vuelta
+            if (failed == 0) renderedEtag = etag;
+            System.err.println("[StaticSiteGenerator] Catálogo " + etag + ": "
+                    + written + " páginas escritas, " + removed + " retiradas"
+                    + (failed > 0 ? ", " + failed + " fallidas" : ""));
+        } catch (Exception ex) {
+            // Se reintenta en la siguiente vuelta (renderedEtag no ha cambiado)
+            System.err.println("[StaticSiteGenerator] Error generando la web estática: " + ex.getMessage());
+        }
+    }
+
+    // Inmueble + medios tal y como los ve la plantilla de la ficha
+    private String fingerprint(PublicPropertyDto p, PublicCatalogSnapshot.Snapshot snapshot)
+            throws JsonProcessingException {
+        return objectMapper.writeValueAsString(List.of(p, snapshot.mediaOf(p.getId())));
+    }
+
+    private boolean render(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                .timeout(Duration.ofSeconds(30))
+                .header(RENDER_HEADER, new String(renderToken, StandardCharsets.US_ASCII))
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        Path html = pageFile(path);
+        if (response.statusCode() != 200) {
+            // La copia vieja ya no vale: sin fichero, StaticSiteFilter pasa la petición a la app
+            System.err.println("[StaticSiteGenerator] " + path + " → HTTP " + response.statusCode());
+            Files.deleteIfExists(html);
+            Files.deleteIfExists(html.resolveSibling(html.getFileName() + ".gz"));
+            return false;
+        }
+
+        Files.createDirectories(html.getParent());
+        write(html, out -> out.write(response.body()));
+        write(html.resolveSibling(html.getFileName() + ".gz"), out -> {
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(response.body());
+            }
+        });
+        return true;
+    }
+
+    private int removeUnpublished(Set<Long> live) throws IOException {
+        Path catalogo = root.resolve("catalogo");
+        if (!Files.isDirectory(catalogo)) return 0;
+
+        int removed = 0;
+        try (Stream<Path> dirs = Files.list(catalogo)) {
+            for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                String name = dir.getFileName().toString();
+                if (!name.matches("\\d+") || live.contains(Long.valueOf(name))) continue;
+                deleteTree(dir);
+                rendered.remove(Long.valueOf(name));
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /** Fichero estático de una ruta pública, o null si esa ruta no se genera. */
+    public Path pageFile(String path) {
+        if (path.equals("/"))         return root.resolve("index.html");
+        if (path.equals("/catalogo")) return root.resolve("catalogo/index.html");
+        if (path.matches("/catalogo/\\d+")) return root.resolve(path.substring(1)).resolve("index.html");
+        return null;
+    }
+
+    // ── Ficheros ─────────────────────────────────────────────
+    private interface Writer { void to(OutputStream out) throws IOException; }
+
+    // Escritura atómica: quien sirve el fichero nunca ve uno a medias
+    private static void write(Path target, Writer writer) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), ".render-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                writer.to(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
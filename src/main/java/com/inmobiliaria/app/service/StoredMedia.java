@@ -0,0 +1,15 @@
+package com.inmobiliaria.app.service;
+
+/** Resultado de {@link MediaStorage#store}: URL pública e identificador para borrarlo. */
+public class StoredMedia {
+    private final String url;
+    private final String publicId;
+
+    public StoredMedia(String url, String publicId) {
+        this.url      = url;
+        this.publicId = publicId;
+    }
+
+    public String getUrl()      { return url; }
+    public String getPublicId() { return publicId; }
+}
@@ -5,7 +5,10 @@ import com.inmobiliaria.app.repo.ClientPhoneRepository;
 import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
 import com.inmobiliaria.app.repo.ClientRepository;
 import com.inmobiliaria.app.repo.PropertyRepository;
-import com.inmobiliaria.app.repo.VisitRepository;
+import com.inmobiliaria.app.service.ClientDetailLoader;
+import com.inmobiliaria.app.service.ClientDetailLoader.ClientDetail;
+import com.inmobiliaria.app.service.PropertyOptionsCache;
+import com.inmobiliaria.app.service.PublicCatalogSnapshot;
 import com.inmobiliaria.app.web.dto.ClientEditForm;
 import com.inmobiliaria.app.web.dto.NewInteractionForm;
 import com.inmobiliaria.app.web.dto.PropertyCatalogDto;
@@ -26,48 +29,43 @@ import java.util.stream.Collectors;
 @Controller
 public class ClientDetailController {
 
+    private static final int CATALOG_SEARCH_LIMIT = 50;
+
     private final ClientRepository clientRepository;
     private final ClientPhoneRepository clientPhoneRepository;
     private final ClientPropertyInteractionRepository interactionRepository;
-    private final VisitRepository visitRepository;
+    private final ClientDetailLoader clientDetailLoader;
     private final PropertyRepository propertyRepository;
     private final ClientEmailRepository clientEmailRepository;
+    private final PublicCatalogSnapshot catalogSnapshot;
+    private final PropertyOptionsCache propertyOptions;
 
     public ClientDetailController(ClientRepository clientRepository,
                                    ClientPhoneRepository clientPhoneRepository,
                                    ClientEmailRepository clientEmailRepository,
                                    ClientPropertyInteractionRepository interactionRepository,
-                                   VisitRepository visitRepository,
-                                   PropertyRepository propertyRepository) {
+                                   ClientDetailLoader clientDetailLoader,
+                                   PropertyRepository propertyRepository,
+                                   PublicCatalogSnapshot catalogSnapshot,
+                                   PropertyOptionsCache propertyOptions) {
         this.clientRepository      = clientRepository;
         this.clientPhoneRepository = clientPhoneRepository;
         this.clientEmailRepository = clientEmailRepository;
         this.interactionRepository = interactionRepository;
-        this.visitRepository       = visitRepository;
+        this.clientDetailLoader    = clientDetailLoader;
         this.propertyRepository    = propertyRepository;
+        this.catalogSnapshot       = catalogSnapshot;
+        this.propertyOptions       = propertyOptions;
     }
 
     // ── GET /clientes/{id} ───────────────────────────────────
     @GetMapping("/clientes/{id}")
     public String detail(@PathVariable Long id, Model model) {
-        Client client = clientRepository.findWithPhonesById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        clientRepository.findWithEmailsById(id).ifPresent(c2 -> client.setEmails(c2.getEmails()));
-        List<ClientPropertyInteraction> interactions =
-                interactionRepository.findByClientIdWithPropertyOrderByContactDateDesc(client.getId());
-        ClientEditForm form = buildEditForm(client, interactions);
-        NewInteractionForm ni = buildPrefilledInteractionForm(client, interactions);
-        model.addAttribute("client", client);
-        model.addAttribute("form", form);
-        model.addAttribute("clientTypes", ClientType.values());
-        model.addAttribute("newInteraction", ni);
-        model.addAttribute("channels", ContactChannel.values());
-        model.addAttribute("statuses", InterestStatus.values());
-        model.addAttribute("interactions", interactions);
-        model.addAttribute("visits",
-                visitRepository.findByClient_IdOrderByVisitAtDescIdDesc(client.getId()));
-        model.addAttribute("motivoContacto", client.getMotivoContacto());
-        model.addAttribute("selectedStatuses", Collections.emptyList());
+        ClientDetail detail = loadDetail(id);
+        Client client = detail.getClient();
+        List<ClientPropertyInteraction> interactions = detail.getInteractions();
+        repopulateDetailModel(model, detail, buildEditForm(client, interactions),
+                buildPrefilledInteractionForm(client, interactions));
         // ← catalogProperties eliminado: ahora se carga por AJAX
         return "client_detail";
     }
@@ -79,7 +77,7 @@ public class ClientDetailController {
             @RequestParam(value = "q", defaultValue = "") String q) {
         String query = q.trim();
         if (query.length() < 2) return Collections.emptyList();
-        return propertyRepository.searchCatalog(query);
+        return propertyOptions.search(query, CATALOG_SEARCH_LIMIT);
     }
 
     // ── POST NDA ─────────────────────────────────────────────
@@ -178,9 +176,9 @@ public class ClientDetailController {
                          @Valid @ModelAttribute("form") ClientEditForm form,
                          BindingResult br,
                          Model model) {
-        Client client = clientRepository.findWithPhonesById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        clientRepository.findWithEmailsById(id).ifPresent(c2 -> client.setEmails(c2.getEmails()));
+        ClientDetail detail = loadDetail(id);
+        Client client = detail.getClient();
+        List<ClientPropertyInteraction> interactions = detail.getInteractions();
 
         String p1 = normalizePhone(form.getPhone1());
         String p2 = normalizePhone(form.getPhone2());
@@ -193,9 +191,7 @@ public class ClientDetailController {
         if (!p3.isBlank()) checkPhoneUnique(br, "phone3", p3, client.getId());
 
         if (br.hasErrors()) {
-            List<ClientPropertyInteraction> interactions =
-                    interactionRepository.findByClientIdWithPropertyOrderByContactDateDesc(client.getId());
-            repopulateDetailModel(model, client, form,
+            repopulateDetailModel(model, detail, form,
                     buildPrefilledInteractionForm(client, interactions));
             return "client_detail";
         }
@@ -213,9 +209,6 @@ public class ClientDetailController {
         client.setNoMolestar(form.isNoMolestar());
         client.setMotivoContacto(t(form.getMotivoContacto()));
 
-        List<ClientPropertyInteraction> interactions =
-                interactionRepository.findByClientIdWithPropertyOrderByContactDateDesc(client.getId());
-
         if (eraCompradorAntes && !form.isCompradorFinal()) {
             interactions.stream()
                     .map(ClientPropertyInteraction::getProperty)
@@ -285,9 +278,10 @@ public class ClientDetailController {
 
         try {
             clientRepository.save(client);
+            catalogSnapshot.invalidate();
         } catch (DataIntegrityViolationException ex) {
             br.reject("dbUnique", "No se pudo guardar: hay un teléfono repetido.");
-            repopulateDetailModel(model, client, form,
+            repopulateDetailModel(model, detail, form,
                     buildPrefilledInteractionForm(client, interactions));
             return "client_detail";
         }
@@ -301,17 +295,13 @@ public class ClientDetailController {
                                  @Valid @ModelAttribute("newInteraction") NewInteractionForm form,
                                  BindingResult br,
                                  Model model) {
-        Client client = clientRepository.findWithPhonesById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        clientRepository.findWithEmailsById(id).ifPresent(c2 -> client.setEmails(c2.getEmails()));
-        List<ClientPropertyInteraction> interactions =
-                interactionRepository.findByClientIdWithPropertyOrderByContactDateDesc(client.getId());
-
         if (br.hasErrors()) {
-            repopulateDetailModel(model, client, buildEditForm(client, interactions), form);
-            model.addAttribute("interactions", interactions);
+            ClientDetail detail = loadDetail(id);
+            repopulateDetailModel(model, detail, buildEditForm(detail.getClient(), detail.getInteractions()), form);
             return "client_detail";
         }
+        Client client = clientRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
         String code = t(form.getPropertyCode());
         Property property = propertyRepository.findByPropertyCode(code)
@@ -323,7 +313,9 @@ public class ClientDetailController {
                     if (!pt.isBlank())   existing.setPropertyType(pt);
                     if (!addr.isBlank()) existing.setAddress(addr);
                     if (!mun.isBlank())  existing.setMunicipality(mun);
-                    return propertyRepository.save(existing);
+                    Property saved = propertyRepository.save(existing);
+                    catalogSnapshot.invalidate();
+                    return saved;
                 })
                 .orElseGet(() -> {
                     Property p = new Property();
@@ -423,19 +415,24 @@ public class ClientDetailController {
         return ni;
     }
 
-    private void repopulateDetailModel(Model model, Client client,
+    private ClientDetail loadDetail(Long id) {
+        return clientDetailLoader.load(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    // Todo sale de lo ya cargado por ClientDetailLoader: ninguna query más
+    private void repopulateDetailModel(Model model, ClientDetail detail,
                                         ClientEditForm editForm,
                                         NewInteractionForm newInteractionForm) {
+        Client client = detail.getClient();
         model.addAttribute("client", client);
         model.addAttribute("form", editForm);
         model.addAttribute("clientTypes", ClientType.values());
         model.addAttribute("newInteraction", newInteractionForm);
         model.addAttribute("channels", ContactChannel.values());
         model.addAttribute("statuses", InterestStatus.values());
-        model.addAttribute("interactions",
-                interactionRepository.findByClientIdWithPropertyOrderByContactDateDesc(client.getId()));
-        model.addAttribute("visits",
-                visitRepository.findByClient_IdOrderByVisitAtDescIdDesc(client.getId()));
+        model.addAttribute("interactions", detail.getInteractions());
+        model.addAttribute("visits", detail.getVisits());
         model.addAttribute("motivoContacto", client.getMotivoContacto());
         model.addAttribute("selectedStatuses", Collections.emptyList());
         // ← catalogProperties eliminado aquí también
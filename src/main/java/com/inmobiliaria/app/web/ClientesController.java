@@ -2,9 +2,13 @@ package com.inmobiliaria.app.web;
 
 import com.inmobiliaria.app.domain.*;
 import com.inmobiliaria.app.repo.*;
+import com.inmobiliaria.app.service.SearchIndex;
 import com.inmobiliaria.app.web.dto.ClientPotencialForm;
 import jakarta.validation.Valid;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -17,19 +21,24 @@ import java.util.stream.Collectors;
 @RequestMapping("/clientes")
 public class ClientesController {
 
+    private static final int PAGE_SIZE = 100;
+
     private final ClientRepository                    clientRepo;
     private final ClientPhoneRepository               phoneRepo;
     private final ClientEmailRepository               emailRepo;
     private final ClientPropertyInteractionRepository interactionRepo;
+    private final SearchIndex                         searchIndex;
 
     public ClientesController(ClientRepository clientRepo,
                                ClientPhoneRepository phoneRepo,
                                ClientEmailRepository emailRepo,
-                               ClientPropertyInteractionRepository interactionRepo) {
+                               ClientPropertyInteractionRepository interactionRepo,
+                               SearchIndex searchIndex) {
         this.clientRepo      = clientRepo;
         this.phoneRepo       = phoneRepo;
         this.emailRepo       = emailRepo;
         this.interactionRepo = interactionRepo;
+        this.searchIndex     = searchIndex;
     }
 
     /* ══════════════════════════════════════════
@@ -40,55 +49,23 @@ public class ClientesController {
                        @RequestParam(required = false) String tipo,
                        @RequestParam(required = false) String telefono,
                        @RequestParam(required = false) String email,
+                       @RequestParam(defaultValue = "0") int page,
                        Model model) {
 
-        List<Client> clients = clientRepo.searchAll(q == null ? "" : q);
-
-        // ── Filtro por teléfono ───────────────────
-        if (telefono != null && !telefono.isBlank()) {
-            String tel = telefono.trim().toLowerCase();
-            List<Long> idsConTel = phoneRepo.findAll().stream()
-                    .filter(p -> p.getPhoneNumber() != null &&
-                                 p.getPhoneNumber().toLowerCase().contains(tel))
-                    .map(p -> p.getClient().getId())
-                    .distinct()
-                    .collect(Collectors.toList());
-            clients = clients.stream()
-                    .filter(c -> idsConTel.contains(c.getId()))
-                    .collect(Collectors.toList());
-        }
-
-        // ── Filtro por email ──────────────────────
-        if (email != null && !email.isBlank()) {
-            String em = email.trim().toLowerCase();
-            List<Long> idsConEmail = emailRepo.findAll().stream()
-                    .filter(e -> e.getEmail() != null &&
-                                 e.getEmail().toLowerCase().contains(em))
-                    .map(e -> e.getClient().getId())
-                    .distinct()
-                    .collect(Collectors.toList());
-            clients = clients.stream()
-                    .filter(c -> idsConEmail.contains(c.getId()))
-                    .collect(Collectors.toList());
-        }
-
-        // ── Filtro por tipo (potencial / interesado) ──
-        List<Long> idsConInteracciones = interactionRepo
-                .findAllWithClientAndPropertyOrderByContactDateDesc()
-                .stream()
-                .map(i -> i.getClient().getId())
-                .distinct()
-                .collect(Collectors.toList());
-
-        if ("potencial".equals(tipo)) {
-            clients = clients.stream()
-                    .filter(c -> !idsConInteracciones.contains(c.getId()))
-                    .collect(Collectors.toList());
-        } else if ("interesado".equals(tipo)) {
-            clients = clients.stream()
-                    .filter(c -> idsConInteracciones.contains(c.getId()))
-                    .collect(Collectors.toList());
-        }
+        // ── Texto (nombre, teléfono, email): ids desde el índice de búsqueda ──
+        SearchIndex.Hits encontrados = null;
+        encontrados = acotar(encontrados, q,        SearchIndex.NOMBRE);
+        encontrados = acotar(encontrados, telefono, SearchIndex.TELEFONO);
+        encontrados = acotar(encontrados, email,    SearchIndex.EMAIL);
+
+        // ── Tipo (EXISTS sobre interacciones) y paginación en BD ──
+        String tipoFiltro = "potencial".equals(tipo) || "interesado".equals(tipo) ? tipo : null;
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), PAGE_SIZE,
+                Sort.by("fullName").ascending().and(Sort.by("id")));
+        Page<Client> pagina = encontrados == null ? clientRepo.searchPage(tipoFiltro, pageable)
+                : encontrados.isEmpty()           ? Page.empty(pageable)
+                : clientRepo.searchPageIn(encontrados.ids(), tipoFiltro, pageable);
+        List<Client> clients = pagina.getContent();
 
         List<Long> ids = clients.stream().map(Client::getId).collect(Collectors.toList());
 
@@ -102,24 +79,26 @@ public class ClientesController {
                         .stream()
                         .collect(Collectors.groupingBy(e -> e.getClient().getId()));
 
+        // ── Nº de interacciones de la página: un solo group by ──
         Map<Long, Long> interactionCount = new HashMap<>();
-        for (Long cid : ids) {
-            interactionCount.put(cid,
-                    (long) interactionRepo
-                            .findByClientIdWithPropertyOrderByContactDateDesc(cid)
-                            .size());
+        if (!ids.isEmpty()) {
+            for (Object[] row : interactionRepo.countGroupedByClientIdIn(ids)) {
+                interactionCount.put((Long) row[0], (Long) row[1]);
+            }
         }
 
         model.addAttribute("clients",                   clients);
+        model.addAttribute("pagina",                    pagina);
         model.addAttribute("phonesByClientId",          phones);
         model.addAttribute("emailsByClientId",          emails);
         model.addAttribute("interactionCount",          interactionCount);
-        model.addAttribute("clientIdsWithInteractions", idsConInteracciones);
+        model.addAttribute("clientIdsWithInteractions", interactionCount.keySet());
         model.addAttribute("q",           q);
         model.addAttribute("tipo",        tipo);
         model.addAttribute("telefono",    telefono);
         model.addAttribute("email",       email);
         model.addAttribute("clientTypes", ClientType.values());
+        model.addAttribute("busquedaCortada", encontrados != null && encontrados.truncated());
 
         return "clientes";
     }
@@ -240,5 +219,14 @@ public class ClientesController {
         return hasDdi ? "+" + digits : digits;
     }
 
+    // Intersección de los aciertos ya filtrados (null = sin filtro) con los del índice
+    private SearchIndex.Hits acotar(SearchIndex.Hits hits, String text, String field) {
+        if (text == null || text.isBlank()) return hits;
+        SearchIndex.Hits found = searchIndex.search(SearchIndex.Kind.CLIENT, text, field);
+        if (hits == null) return found;
+        hits.ids().retainAll(found.ids());
+        return new SearchIndex.Hits(hits.ids(), hits.truncated() || found.truncated());
+    }
+
     private String nvl(String s) { return s == null ? "" : s.trim(); }
 }
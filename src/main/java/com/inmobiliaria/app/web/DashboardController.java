@@ -2,6 +2,8 @@ package com.inmobiliaria.app.web;
 
 import com.inmobiliaria.app.domain.*;
 import com.inmobiliaria.app.repo.*;
+import com.inmobiliaria.app.service.EmailOutbox;
+import com.inmobiliaria.app.service.SearchIndex;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -17,6 +19,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 public class DashboardController {
@@ -26,17 +29,23 @@ public class DashboardController {
     private final AgendaNoteRepository noteRepository;
     private final ClientPropertyInteractionRepository interactionRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EmailOutbox emailOutbox;
+    private final SearchIndex searchIndex;
 
     public DashboardController(AppUserRepository userRepository,
                                VisitRepository visitRepository,
                                AgendaNoteRepository noteRepository,
                                ClientPropertyInteractionRepository interactionRepository,
-                               PasswordEncoder passwordEncoder) {
+                               PasswordEncoder passwordEncoder,
+                               EmailOutbox emailOutbox,
+                               SearchIndex searchIndex) {
         this.userRepository        = userRepository;
         this.visitRepository       = visitRepository;
         this.noteRepository        = noteRepository;
         this.interactionRepository = interactionRepository;
         this.passwordEncoder       = passwordEncoder;
+        this.emailOutbox           = emailOutbox;
+        this.searchIndex           = searchIndex;
     }
 
     // ── GET /login ───────────────────────────────────────────
@@ -143,4 +152,18 @@ public class DashboardController {
         }
         userRepository.deleteById(id);
     }
+
+    // ── GET /api/email-outbox (profundidad de la cola de correos) ──
+    @GetMapping("/api/email-outbox")
+    @ResponseBody
+    public Map<String, Object> emailOutboxStats() {
+        return emailOutbox.stats();
+    }
+
+    // ── GET /api/search-index (¿índice de búsqueda desfasado?) ──
+    @GetMapping("/api/search-index")
+    @ResponseBody
+    public Map<String, Object> searchIndexStats() {
+        return searchIndex.stats();
+    }
 }
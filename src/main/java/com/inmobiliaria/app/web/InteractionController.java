@@ -8,12 +8,22 @@ import com.inmobiliaria.app.domain.InterestStatus;
 import com.inmobiliaria.app.repo.ClientEmailRepository;
 import com.inmobiliaria.app.repo.ClientPhoneRepository;
 import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.service.InteractionExportService;
+import com.inmobiliaria.app.service.SearchIndex;
+import com.inmobiliaria.app.service.SearchIndex.Kind;
+import com.inmobiliaria.app.web.dto.InteractionFilter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -24,13 +34,27 @@ public class InteractionController {
     private final ClientPropertyInteractionRepository interactionRepository;
     private final ClientPhoneRepository clientPhoneRepository;
     private final ClientEmailRepository clientEmailRepository;
+    private final SearchIndex searchIndex;
+    private final InteractionExportService exportService;
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final SearchIndex.Hits NO_HITS = new SearchIndex.Hits(Set.of(), false);
+
+    private static final Set<String> SEARCH_FIELDS = Set.of(
+            "ALL", "CLIENT", "PHONE", "EMAIL", "SOLVIA_CODE",
+            "PROPERTY_CODE", "MUNICIPALITY", "CHANNEL", "COMMENTS");
 
     public InteractionController(ClientPropertyInteractionRepository interactionRepository,
                                  ClientPhoneRepository clientPhoneRepository,
-                                 ClientEmailRepository clientEmailRepository) {
+                                 ClientEmailRepository clientEmailRepository,
+                                 SearchIndex searchIndex,
+                                 InteractionExportService exportService) {
         this.interactionRepository = interactionRepository;
         this.clientPhoneRepository = clientPhoneRepository;
         this.clientEmailRepository = clientEmailRepository;
+        this.searchIndex           = searchIndex;
+        this.exportService         = exportService;
     }
 
     @GetMapping("/interesados")
@@ -42,92 +66,29 @@ public class InteractionController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
             @RequestParam(required = false, defaultValue = "false") boolean ndaOnly,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(required = false) Long afterId,
             Model model
     ) {
-        // Convertir strings a enums
-        List<InterestStatus> statusEnums = new ArrayList<>();
-        if (statuses != null) {
-            for (String s : statuses) {
-                try { statusEnums.add(InterestStatus.valueOf(s)); }
-                catch (IllegalArgumentException ignore) {}
-            }
-        }
-
-        // Normalizar searchField
-        String field = (searchField == null || searchField.isBlank()) ? "ALL" : searchField.trim().toUpperCase();
+        InteractionFilter filter = buildFilter(statuses, channel, q, searchField, from, to, ndaOnly);
 
-        // Siempre pasar null a la DB para el texto — el filtro en memoria cubre todos los campos
+        // Una página (+1 fila para saber si hay siguiente), todos los filtros en la query
         List<ClientPropertyInteraction> items;
-        if (statusEnums.isEmpty()) {
-            items = interactionRepository.searchWithFilters(null, channel, null, from, to);
-        } else if (statusEnums.size() == 1) {
-            items = interactionRepository.searchWithFilters(statusEnums.get(0), channel, null, from, to);
+        if (filter.matchesNothing()) {
+            items = new ArrayList<>();
         } else {
-            items = interactionRepository.searchWithFilters(null, channel, null, from, to)
-                    .stream()
-                    .filter(i -> statusEnums.contains(i.getStatus()))
-                    .collect(Collectors.toList());
-        }
-
-        // Filtro en memoria (todos los campos, incluyendo teléfono y correo)
-        if (q != null && !q.isBlank()) {
-            String lq = q.trim().toLowerCase();
-
-            // Pre-cargar teléfonos/emails para ALL, PHONE o EMAIL
-            final Map<Long, List<ClientPhone>> filterPhones;
-            final Map<Long, List<ClientEmail>> filterEmails;
-            if ("ALL".equals(field) || "PHONE".equals(field) || "EMAIL".equals(field)) {
-                List<Long> preIds = items.stream()
-                        .map(i -> i.getClient().getId()).distinct().toList();
-                filterPhones = clientPhoneRepository
-                        .findByClient_IdInOrderByClient_IdAscPositionAsc(preIds)
-                        .stream().collect(Collectors.groupingBy(p -> p.getClient().getId()));
-                filterEmails = clientEmailRepository
-                        .findByClient_IdInOrderByClient_IdAscPositionAsc(preIds)
-                        .stream().collect(Collectors.groupingBy(e -> e.getClient().getId()));
-            } else {
-                filterPhones = Collections.emptyMap();
-                filterEmails = Collections.emptyMap();
-            }
-
-            items = items.stream().filter(it -> {
-                if ("ALL".equals(field)) {
-                    return matches(it.getClient().getFullName(), lq)
-                        || matches(it.getClient().getCompanyName(), lq)
-                        || matches(it.getClient().getSolviaCode(), lq)
-                        || filterPhones.getOrDefault(it.getClient().getId(), List.of())
-                                       .stream().anyMatch(p -> matches(p.getPhoneNumber(), lq))
-                        || filterEmails.getOrDefault(it.getClient().getId(), List.of())
-                                       .stream().anyMatch(e -> matches(e.getEmail(), lq))
-                        || matches(it.getProperty().getPropertyCode(), lq)
-                        || matches(it.getProperty().getMunicipality(), lq)
-                        || (it.getChannel() != null && it.getChannel().name().toLowerCase().contains(lq))
-                        || matches(it.getComments(), lq);
-                }
-                return switch (field) {
-                    case "CLIENT"        -> matches(it.getClient().getFullName(), lq)
-                                         || matches(it.getClient().getCompanyName(), lq);
-                    case "PHONE"         -> filterPhones.getOrDefault(it.getClient().getId(), List.of())
-                                         .stream().anyMatch(p -> matches(p.getPhoneNumber(), lq));
-                    case "EMAIL"         -> filterEmails.getOrDefault(it.getClient().getId(), List.of())
-                                         .stream().anyMatch(e -> matches(e.getEmail(), lq));
-                    case "SOLVIA_CODE"   -> matches(it.getClient().getSolviaCode(), lq);
-                    case "PROPERTY_CODE" -> matches(it.getProperty().getPropertyCode(), lq);
-                    case "MUNICIPALITY"  -> matches(it.getProperty().getMunicipality(), lq);
-                    case "CHANNEL"       -> it.getChannel() != null
-                                         && it.getChannel().name().toLowerCase().contains(lq);
-                    case "COMMENTS"      -> matches(it.getComments(), lq);
-                    default              -> true;
-                };
-            }).collect(Collectors.toList());
-        }
-
-        // Filtro NDA
-        if (ndaOnly) {
-            items = items.stream()
-                    .filter(it -> Boolean.TRUE.equals(it.getNdaRequested()))
-                    .collect(Collectors.toList());
+            boolean keyset = afterDate != null && afterId != null;
+            items = new ArrayList<>(interactionRepository.findPage(
+                    filter.isStatusFilter(), filter.getStatusesParam(),
+                    filter.getChannel(), filter.getFrom(), filter.getTo(), filter.isNdaOnly(),
+                    filter.isTextFilter(), filter.getInteractionIdsParam(),
+                    filter.getClientIdsParam(), filter.getPropertyIdsParam(),
+                    keyset ? afterDate : null, keyset ? afterId : null,
+                    PageRequest.of(0, PAGE_SIZE + 1)));
         }
+        boolean hasNext = items.size() > PAGE_SIZE;
+        if (hasNext) items.remove(items.size() - 1);
+        ClientPropertyInteraction last = hasNext ? items.get(items.size() - 1) : null;
 
         List<Long> clientIds = items.stream()
                 .map(i -> i.getClient().getId())
@@ -159,14 +120,97 @@ public class InteractionController {
         model.addAttribute("selectedStatuses", statuses != null ? statuses : Collections.emptyList());
         model.addAttribute("selectedChannel", channel);
         model.addAttribute("q", q);
-        model.addAttribute("searchField", field);
+        model.addAttribute("busquedaCortada", filter.isTruncated());
+        model.addAttribute("searchField", normalizeField(searchField));
         model.addAttribute("from", from);
         model.addAttribute("to", to);
         model.addAttribute("ndaOnly", ndaOnly);
+        model.addAttribute("firstPage", afterDate == null || afterId == null);
+        model.addAttribute("nextAfterDate", last != null ? last.getContactDate() : null);
+        model.addAttribute("nextAfterId", last != null ? last.getId() : null);
         return "interactions";
     }
 
-    private boolean matches(String value, String lq) {
-        return value != null && value.toLowerCase().contains(lq);
+    // ── GET /interesados/export.csv ──────────────────────────
+    // Mismos filtros que el listado, sin paginar; las filas se escriben según llegan
+    @GetMapping("/interesados/export.csv")
+    public void exportCsv(
+            @RequestParam(required = false) List<String> statuses,
+            @RequestParam(required = false) ContactChannel channel,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String searchField,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false, defaultValue = "false") boolean ndaOnly,
+            HttpServletResponse response
+    ) throws IOException {
+        InteractionFilter filter = buildFilter(statuses, channel, q, searchField, from, to, ndaOnly);
+        // Un CSV al que le faltan filas sin decirlo es peor que ninguno
+        if (filter.isTruncated()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Demasiadas coincidencias para exportar: afina la búsqueda");
+        }
+
+        response.setContentType("text/csv; charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"interesados-" + LocalDate.now() + ".csv\"");
+        exportService.writeCsv(filter, response.getWriter());
+    }
+
+    private static String normalizeField(String searchField) {
+        return (searchField == null || searchField.isBlank()) ? "ALL" : searchField.trim().toUpperCase();
+    }
+
+    // Estados a enums y texto a ids del índice de búsqueda
+    private InteractionFilter buildFilter(List<String> statuses, ContactChannel channel,
+                                          String q, String searchField,
+                                          LocalDate from, LocalDate to, boolean ndaOnly) {
+        List<InterestStatus> statusEnums = new ArrayList<>();
+        if (statuses != null) {
+            for (String s : statuses) {
+                try { statusEnums.add(InterestStatus.valueOf(s)); }
+                catch (IllegalArgumentException ignore) {}
+            }
+        }
+
+        String field = normalizeField(searchField);
+
+        boolean          filtrarTexto   = q != null && !q.isBlank() && SEARCH_FIELDS.contains(field);
+        SearchIndex.Hits porInteraccion = NO_HITS;
+        SearchIndex.Hits porCliente     = NO_HITS;
+        SearchIndex.Hits porInmueble    = NO_HITS;
+        if (filtrarTexto) {
+            String text = q.trim();
+            porCliente = switch (field) {
+                case "ALL"         -> searchIndex.search(Kind.CLIENT, text,
+                                          SearchIndex.NOMBRE, SearchIndex.SOLVIA,
+                                          SearchIndex.TELEFONO, SearchIndex.EMAIL);
+                case "CLIENT"      -> searchIndex.search(Kind.CLIENT, text, SearchIndex.NOMBRE);
+                case "PHONE"       -> searchIndex.search(Kind.CLIENT, text, SearchIndex.TELEFONO);
+                case "EMAIL"       -> searchIndex.search(Kind.CLIENT, text, SearchIndex.EMAIL);
+                case "SOLVIA_CODE" -> searchIndex.search(Kind.CLIENT, text, SearchIndex.SOLVIA);
+                default            -> NO_HITS;
+            };
+            porInmueble = switch (field) {
+                case "ALL"           -> searchIndex.search(Kind.PROPERTY, text,
+                                            SearchIndex.CODIGO, SearchIndex.MUNICIPIO);
+                case "PROPERTY_CODE" -> searchIndex.search(Kind.PROPERTY, text, SearchIndex.CODIGO);
+                case "MUNICIPALITY"  -> searchIndex.search(Kind.PROPERTY, text, SearchIndex.MUNICIPIO);
+                default              -> NO_HITS;
+            };
+            porInteraccion = switch (field) {
+                case "ALL"         -> searchIndex.search(Kind.INTERACTION, text,
+                                          SearchIndex.COMENTARIOS, SearchIndex.CANAL, SearchIndex.SOLVIA);
+                case "SOLVIA_CODE" -> searchIndex.search(Kind.INTERACTION, text, SearchIndex.SOLVIA);
+                case "CHANNEL"     -> searchIndex.search(Kind.INTERACTION, text, SearchIndex.CANAL);
+                case "COMMENTS"    -> searchIndex.search(Kind.INTERACTION, text, SearchIndex.COMENTARIOS);
+                default            -> NO_HITS;
+            };
+        }
+
+        // Cada lista va acotada a MAX_HITS: el IN de la página nunca pasa de 3 × MAX_HITS
+        return new InteractionFilter(statusEnums, channel, from, to, ndaOnly, filtrarTexto,
+                porInteraccion.ids(), porCliente.ids(), porInmueble.ids(),
+                porInteraccion.truncated() || porCliente.truncated() || porInmueble.truncated());
     }
 }
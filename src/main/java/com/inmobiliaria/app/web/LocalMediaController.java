@@ -0,0 +1,134 @@
+package com.inmobiliaria.app.web;
+
+import com.inmobiliaria.app.service.LocalMediaStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sirve los medios de {@link LocalMediaStorage}. Con Tomcat NIO el cuerpo sale
+ * por sendfile (el kernel copia del fichero al socket); si no está disponible,
+ * se usa FileChannel.transferTo. Soporta un único rango (Range: bytes=a-b),
+ * que es lo que piden los navegadores para avanzar en un vídeo.
+ */
+@Controller
+@ConditionalOnProperty(name = "app.media.storage", havingValue = "local")
+public class LocalMediaController {
+
+    private static final String SENDFILE_SUPPORT  = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START    = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END      = "org.apache.tomcat.sendfile.end";
+
+    private final LocalMediaStorage storage;
+
+    public LocalMediaController(LocalMediaStorage storage) {
+        this.storage = storage;
+    }
+
+    // ── GET /uploads/{propertyId}/{file} ─────────────────────
+    @GetMapping("/uploads/{propertyId}/{file:.+}")
+    public void serve(@PathVariable String propertyId,
+                      @PathVariable String file,
+                      HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+
+        Path path = storage.resolve(propertyId + "/" + file);
+        if (path == null || !Files.isRegularFile(path)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+
+        long size  = Files.size(path);
+        long start = 0;
+        long end   = size - 1;
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && size > 0) {
+            long[] r = parseRange(range, size);
+            if (r == null) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            start = r[0];
+            end   = r[1];
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long length = size == 0 ? 0 : end - start + 1;
+
+        // El nombre es un UUID: el contenido de una URL no cambia nunca
+        response.setContentType(MediaTypeFactory.getMediaType(file)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setContentLengthLong(length);
+
+        if ("HEAD".equals(request.getMethod()) || length == 0) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START,    start);
+            request.setAttribute(SENDFILE_END,      end + 1);
+            return;
+        }
+
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long pos = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long n = in.transferTo(pos, remaining, out);
+                if (n <= 0) break;
+                pos       += n;
+                remaining -= n;
+            }
+        }
+    }
+
+    // "bytes=a-b", "bytes=a-" o "bytes=-n"; varios rangos no se soportan (se sirve el primero)
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=")) return null;
+        String spec = header.substring(6);
+        int comma = spec.indexOf(',');
+        if (comma >= 0) spec = spec.substring(0, comma);
+        spec = spec.trim();
+
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String a = spec.substring(0, dash).trim();
+            String b = spec.substring(dash + 1).trim();
+            long start, end;
+            if (a.isEmpty()) {
+                long suffix = Long.parseLong(b);
+                if (suffix <= 0) return null;
+                start = Math.max(0, size - suffix);
+                end   = size - 1;
+            } else {
+                start = Long.parseLong(a);
+                end   = b.isEmpty() ? size - 1 : Math.min(Long.parseLong(b), size - 1);
+            }
+            if (start < 0 || start >= size || end < start) return null;
+            return new long[] { start, end };
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.inmobiliaria.app.web;
+
+import com.inmobiliaria.app.domain.MediaUploadJob;
+import com.inmobiliaria.app.domain.MediaUploadStatus;
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.repo.MediaUploadJobRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.service.MediaIngestionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Subida reanudable por trozos (vídeos grandes desde el móvil):
+ * <pre>
+ *   POST /inmuebles/{id}/media/uploads                 → abre la subida (name, type, size)
+ *   GET  /inmuebles/{id}/media/uploads/{uploadId}      → offset recibido hasta ahora
+ *   PUT  /inmuebles/{id}/media/uploads/{uploadId}?offset=N  (cuerpo = bytes del trozo)
+ *   POST /inmuebles/{id}/media/uploads/{uploadId}/commit
+ * </pre>
+ * Tras un corte el cliente pide el offset y sigue desde ahí. El commit deja el
+ * fichero en la cola de MediaIngestionService, que crea el PropertyMedia.
+ */
+@Controller
+@RequestMapping("/inmuebles/{id}/media/uploads")
+public class MediaUploadController {
+
+    private final PropertyRepository       propertyRepository;
+    private final MediaUploadJobRepository jobRepository;
+    private final MediaIngestionService    mediaIngestion;
+    private final long                     chunkSize;
+    private final long                     maxFileSize;
+
+    public MediaUploadController(PropertyRepository propertyRepository,
+                                 MediaUploadJobRepository jobRepository,
+                                 MediaIngestionService mediaIngestion,
+                                 @Value("${app.media.chunk-size:8MB}") DataSize chunkSize,
+                                 @Value("${spring.servlet.multipart.max-file-size:500MB}") DataSize maxFileSize) {
+        this.propertyRepository = propertyRepository;
+        this.jobRepository      = jobRepository;
+        this.mediaIngestion     = mediaIngestion;
+        this.chunkSize          = chunkSize.toBytes();
+        this.maxFileSize        = maxFileSize.toBytes();
+    }
+
+    // ── POST /inmuebles/{id}/media/uploads ───────────────────
+    @PostMapping
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> start(@PathVariable Long id,
+                                                     @RequestParam String name,
+                                                     @RequestParam(required = false) String type,
+                                                     @RequestParam long size) throws IOException {
+        Property property = propertyRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (size <= 0 || size > maxFileSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        String originalName = name.isBlank() ? "file" : name.trim();
+        MediaUploadJob job = mediaIngestion.startChunked(property, originalName,
+                type != null ? type : "", size);
+        return ResponseEntity.status(HttpStatus.CREATED).body(state(job));
+    }
+
+    // ── GET /inmuebles/{id}/media/uploads/{uploadId} ─────────
+    @GetMapping("/{uploadId}")
+    @ResponseBody
+    public Map<String, Object> status(@PathVariable Long id, @PathVariable Long uploadId) {
+        return state(load(id, uploadId));
+    }
+
+    // ── PUT /inmuebles/{id}/media/uploads/{uploadId} ─────────
+    @PutMapping("/{uploadId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> chunk(@PathVariable Long id,
+                                                     @PathVariable Long uploadId,
+                                                     @RequestParam long offset,
+                                                     HttpServletRequest request) throws IOException {
+        MediaUploadJob job = load(id, uploadId);
+        if (job.getStatus() != MediaUploadStatus.RECIBIENDO) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "La subida ya está cerrada");
+        }
+
+        long length = request.getContentLengthLong();
+        if (length < 0) throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED);
+        if (length > chunkSize || offset + length > job.getTotalSize()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        // Offset distinto del recibido: el cliente debe reanudar desde el nuestro
+        if (offset != job.getReceivedBytes()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(state(job));
+        }
+
+        OptionalLong written = mediaIngestion.appendChunk(job, offset, request.getInputStream(), length);
+        HttpStatus status = written.isPresent() ? HttpStatus.OK : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(state(load(id, uploadId)));
+    }
+
+    // ── POST /inmuebles/{id}/media/uploads/{uploadId}/commit ─
+    @PostMapping("/{uploadId}/commit")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> commit(@PathVariable Long id, @PathVariable Long uploadId) {
+        MediaUploadJob job = load(id, uploadId);
+        if (job.getStatus() != MediaUploadStatus.RECIBIENDO) {
+            // Commit repetido (p. ej. reintento tras perder la respuesta): no es un error
+            return ResponseEntity.ok(state(job));
+        }
+        if (!mediaIngestion.commitChunked(job)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(state(job));
+        }
+        return ResponseEntity.accepted().body(state(job));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────
+    private MediaUploadJob load(Long propertyId, Long uploadId) {
+        MediaUploadJob job = jobRepository.findById(uploadId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (!job.getProperty().getId().equals(propertyId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return job;
+    }
+
+    private Map<String, Object> state(MediaUploadJob job) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("uploadId",  job.getId());
+        m.put("status",    job.getStatus().name());
+        m.put("offset",    job.getReceivedBytes());
+        m.put("size",      job.getTotalSize());
+        m.put("chunkSize", chunkSize);
+        return m;
+    }
+}
@@ -0,0 +1,115 @@
+package com.inmobiliaria.app.web;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.web.dto.PropertyApiRowDto;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * API JSON del catálogo interno (widgets y desplegables).
+ * <pre>
+ *   GET /api/v1/inmuebles?after={cursor}&size={n}&fields=id,propertyCode,...
+ *   → { "items": [...], "next": "123" }      (next = null en la última página)
+ * </pre>
+ * Sale de una proyección (PropertyApiRowDto), nunca de la entidad, y se
+ * serializa con un ObjectWriter preparado al arrancar; {@code fields} solo
+ * cambia el filtro de propiedades. El gzip lo pone server.compression.
+ */
+@Controller
+public class PropertyApiController {
+
+    private static final int DEFAULT_SIZE = 50;
+    private static final int MAX_SIZE     = 500;
+
+    private static final String FILTER = "campos";
+    private static final Set<String> FIELDS = Set.of("id", "propertyCode", "propertyType", "address",
+            "municipality", "province", "precio", "preVendido", "publicado");
+
+    @JsonFilter(FILTER)
+    private interface FieldFilter {}
+
+    private final PropertyRepository propertyRepository;
+    private final ObjectWriter       writer;
+
+    public PropertyApiController(PropertyRepository propertyRepository, ObjectMapper objectMapper) {
+        this.propertyRepository = propertyRepository;
+        // Copia propia: el filtro no afecta al ObjectMapper del resto de la aplicación
+        this.writer = objectMapper.copy()
+                .addMixIn(PropertyApiRowDto.class, FieldFilter.class)
+                .writer(filters(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    // ── GET /api/v1/inmuebles ────────────────────────────────
+    @GetMapping("/api/v1/inmuebles")
+    @ResponseBody
+    public ResponseEntity<byte[]> list(@RequestParam(value = "after", required = false) Long after,
+                                       @RequestParam(value = "size", defaultValue = "" + DEFAULT_SIZE) int size,
+                                       @RequestParam(value = "fields", required = false) String fields)
+            throws JsonProcessingException {
+        if (size < 1 || size > MAX_SIZE)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size entre 1 y " + MAX_SIZE);
+        ObjectWriter out = fields == null || fields.isBlank() ? writer : writer.with(filters(select(fields)));
+
+        // Se pide una fila de más para saber si hay página siguiente
+        List<PropertyApiRowDto> rows = new ArrayList<>(
+                propertyRepository.findApiRows(after, PageRequest.of(0, size + 1)));
+        String next = null;
+        if (rows.size() > size) {
+            rows.remove(size);
+            next = String.valueOf(rows.get(size - 1).getId());
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", rows);
+        body.put("next", next);
+        return json(out.writeValueAsBytes(body));
+    }
+
+    // ── GET /api/inmuebles (sin paginar, se mantiene por compatibilidad) ──
+    @GetMapping("/api/inmuebles")
+    @ResponseBody
+    public ResponseEntity<byte[]> legacyList() throws JsonProcessingException {
+        return json(writer.writeValueAsBytes(propertyRepository.findApiRowsByCode()));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────
+    private static SimpleBeanPropertyFilter select(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        for (String f : fields.split(",")) {
+            String name = f.trim();
+            if (name.isEmpty()) continue;
+            if (!FIELDS.contains(name))
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Campo desconocido: " + name);
+            selected.add(name);
+        }
+        return SimpleBeanPropertyFilter.filterOutAllExcept(selected);
+    }
+
+    private static SimpleFilterProvider filters(SimpleBeanPropertyFilter filter) {
+        return new SimpleFilterProvider().addFilter(FILTER, filter);
+    }
+
+    private static ResponseEntity<byte[]> json(byte[] body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -1,13 +1,15 @@
 package com.inmobiliaria.app.web;
 
-import com.cloudinary.Cloudinary;
 import com.inmobiliaria.app.domain.Property;
-import com.inmobiliaria.app.domain.PropertyMedia;
 import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
-import com.inmobiliaria.app.repo.PropertyMediaRepository;
 import com.inmobiliaria.app.repo.PropertyRepository;
-import com.inmobiliaria.app.repo.VisitRepository;
+import com.inmobiliaria.app.service.PropertyDeletionService;
+import com.inmobiliaria.app.service.PublicCatalogSnapshot;
+import com.inmobiliaria.app.service.SearchIndex;
+import com.inmobiliaria.app.service.SearchIndex.Kind;
+import com.inmobiliaria.app.web.dto.PropertyListRowDto;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,66 +18,87 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Controller
 public class PropertyCatalogController {
 
+    private static final int LIST_PAGE_SIZE = 100;
+    private static final Set<String> SOLD_FILTERS = Set.of("ALL", "SOLD", "ACTIVE", "PRE_VENDIDO");
+
     private final PropertyRepository propertyRepository;
     private final ClientPropertyInteractionRepository interactionRepository;
-    private final PropertyMediaRepository propertyMediaRepository;
-    private final VisitRepository visitRepository;
-    private final Cloudinary cloudinary;
+    private final PublicCatalogSnapshot catalogSnapshot;
+    private final SearchIndex searchIndex;
+    private final PropertyDeletionService propertyDeletion;
 
     public PropertyCatalogController(PropertyRepository propertyRepository,
                                      ClientPropertyInteractionRepository interactionRepository,
-                                     PropertyMediaRepository propertyMediaRepository,
-                                     VisitRepository visitRepository,
-                                     Cloudinary cloudinary) {
-        this.propertyRepository      = propertyRepository;
-        this.interactionRepository   = interactionRepository;
-        this.propertyMediaRepository = propertyMediaRepository;
-        this.visitRepository         = visitRepository;
-        this.cloudinary              = cloudinary;
+                                     PublicCatalogSnapshot catalogSnapshot,
+                                     SearchIndex searchIndex,
+                                     PropertyDeletionService propertyDeletion) {
+        this.propertyRepository    = propertyRepository;
+        this.interactionRepository = interactionRepository;
+        this.catalogSnapshot       = catalogSnapshot;
+        this.searchIndex           = searchIndex;
+        this.propertyDeletion      = propertyDeletion;
     }
 
-    private Map<Long, Long> buildInterestMap(List<Property> properties) {
-        return properties.stream().collect(Collectors.toMap(
-                Property::getId,
-                p -> interactionRepository.countByPropertyId(p.getId())
-        ));
+    private Map<Long, Long> buildInterestMap(List<Long> propertyIds) {
+        if (propertyIds.isEmpty()) return Map.of();
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : interactionRepository.countGroupedByPropertyIdIn(propertyIds)) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    // Carga una página de filas (keyset sobre property_code) y sus contadores
+    private void populateList(Model model, String q, String soldFilter,
+                              String publicadoFilter, String after) {
+        Boolean publicado = "SI".equals(publicadoFilter) ? Boolean.TRUE
+                          : "NO".equals(publicadoFilter) ? Boolean.FALSE
+                          : null;
+        String  afterCode = (after == null || after.isBlank()) ? null : after;
+        if (!SOLD_FILTERS.contains(soldFilter)) soldFilter = "ALL";
+
+        // Texto libre: ids desde el índice de búsqueda
+        SearchIndex.Hits hits = q == null || q.isBlank() ? null
+                : searchIndex.search(Kind.PROPERTY, q, SearchIndex.CODIGO, SearchIndex.DIRECCION,
+                                     SearchIndex.MUNICIPIO, SearchIndex.TIPO);
+
+        // Se pide una fila de más para saber si hay página siguiente
+        PageRequest limit = PageRequest.of(0, LIST_PAGE_SIZE + 1);
+        List<PropertyListRowDto> rows = new ArrayList<>(
+                hits == null    ? propertyRepository.findListRows(soldFilter, publicado, afterCode, limit)
+              : hits.isEmpty()  ? List.of()
+              : propertyRepository.findListRowsIn(hits.ids(), soldFilter, publicado, afterCode, limit));
+        boolean hasNext = rows.size() > LIST_PAGE_SIZE;
+        if (hasNext) rows.remove(rows.size() - 1);
+
+        model.addAttribute("properties", rows);
+        model.addAttribute("interestCountById",
+                buildInterestMap(rows.stream().map(PropertyListRowDto::getId).toList()));
+        model.addAttribute("q", q);
+        model.addAttribute("busquedaCortada", hits != null && hits.truncated());
+        model.addAttribute("soldFilter", soldFilter);
+        model.addAttribute("publicadoFilter", publicadoFilter);
+        model.addAttribute("after", afterCode);
+        model.addAttribute("nextAfter", hasNext ? rows.get(rows.size() - 1).getPropertyCode() : null);
     }
 
     // ── GET /inmuebles ───────────────────────────────────────
     @GetMapping("/inmuebles")
     public String list(@RequestParam(required = false) String q,
                        @RequestParam(required = false, defaultValue = "ALL") String soldFilter,
+                       @RequestParam(required = false, defaultValue = "ALL") String publicadoFilter,
+                       @RequestParam(required = false) String after,
                        Model model) {
-
-        List<Property> all = propertyRepository.findAllByOrderByPropertyCodeAsc();
-
-        if (q != null && !q.isBlank()) {
-            String lq = q.trim().toLowerCase();
-            all = all.stream().filter(p ->
-                    (p.getPropertyCode() != null && p.getPropertyCode().toLowerCase().contains(lq)) ||
-                    (p.getAddress() != null && p.getAddress().toLowerCase().contains(lq)) ||
-                    (p.getMunicipality() != null && p.getMunicipality().toLowerCase().contains(lq)) ||
-                    (p.getPropertyType() != null && p.getPropertyType().toLowerCase().contains(lq))
-            ).collect(Collectors.toList());
-        }
-
-        switch (soldFilter) {
-            case "SOLD"        -> all = all.stream().filter(Property::isSold).collect(Collectors.toList());
-            case "ACTIVE"      -> all = all.stream().filter(p -> !p.isSold() && !p.isPreVendido()).collect(Collectors.toList());
-            case "PRE_VENDIDO" -> all = all.stream().filter(p -> p.isPreVendido() && !p.isSold()).collect(Collectors.toList());
-        }
-
-        model.addAttribute("properties", all);
-        model.addAttribute("interestCountById", buildInterestMap(all));
-        model.addAttribute("q", q);
-        model.addAttribute("soldFilter", soldFilter);
+        populateList(model, q, soldFilter, publicadoFilter, after);
         return "property_catalog";
     }
 
@@ -100,13 +123,9 @@ public class PropertyCatalogController {
     public String editForm(@PathVariable Long id, Model model) {
         Property p = propertyRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        List<Property> all = propertyRepository.findAllByOrderByPropertyCodeAsc();
-        model.addAttribute("properties", all);
-        model.addAttribute("interestCountById", buildInterestMap(all));
+        populateList(model, null, "ALL", "ALL", null);
         model.addAttribute("form", p);
         model.addAttribute("editing", true);
-        model.addAttribute("q", null);
-        model.addAttribute("soldFilter", "ALL");
         return "property_catalog";
     }
 
@@ -116,12 +135,8 @@ public class PropertyCatalogController {
                          @Valid @ModelAttribute("form") Property form,
                          BindingResult br, Model model) {
         if (br.hasErrors()) {
-            List<Property> all = propertyRepository.findAllByOrderByPropertyCodeAsc();
-            model.addAttribute("properties", all);
-            model.addAttribute("interestCountById", buildInterestMap(all));
+            populateList(model, null, "ALL", "ALL", null);
             model.addAttribute("editing", true);
-            model.addAttribute("q", null);
-            model.addAttribute("soldFilter", "ALL");
             return "property_catalog";
         }
         Property existing = propertyRepository.findById(id)
@@ -132,34 +147,14 @@ public class PropertyCatalogController {
         existing.setMunicipality(form.getMunicipality());
         existing.setNotes(form.getNotes());
         propertyRepository.save(existing);
+        catalogSnapshot.invalidate();
         return "redirect:/inmuebles";
     }
 
     // ── POST /inmuebles/{id}/eliminar ────────────────────────
     @PostMapping("/inmuebles/{id}/eliminar")
     public String delete(@PathVariable Long id, RedirectAttributes ra) {
-        propertyRepository.findById(id).ifPresent(property -> {
-
-            // 1. Borrar archivos de Cloudinary y registros property_media
-            List<PropertyMedia> medias = propertyMediaRepository.findByPropertyId(id);
-            for (PropertyMedia m : medias) {
-                if (m.getCloudinaryPublicId() != null && !m.getCloudinaryPublicId().isBlank()) {
-                    try {
-                        cloudinary.uploader().destroy(m.getCloudinaryPublicId(), Map.of());
-                    } catch (Exception ignored) {}
-                }
-            }
-            propertyMediaRepository.deleteAll(medias);
-
-            // 2. Borrar visitas asociadas al inmueble
-            visitRepository.deleteAll(visitRepository.findByProperty_Id(id));
-
-            // 3. Borrar interacciones con clientes
-            interactionRepository.deleteAll(interactionRepository.findByPropertyId(id));
-
-            // 4. Borrar el inmueble
-            propertyRepository.delete(property);
-        });
+        propertyDeletion.deleteProperty(id);
         ra.addFlashAttribute("successMsg", "Inmueble eliminado correctamente.");
         return "redirect:/inmuebles";
     }
@@ -174,6 +169,7 @@ public class PropertyCatalogController {
         p.setSold(sold);
         if (sold) p.setPreVendido(false);
         propertyRepository.save(p);
+        catalogSnapshot.invalidate();
     }
 
     // ── POST /inmuebles/{id}/prevendido ──────────────────────
@@ -186,15 +182,6 @@ public class PropertyCatalogController {
         p.setPreVendido(preVendido);
         if (preVendido) p.setSold(false);
         propertyRepository.save(p);
-    }
-
-    // ── GET /api/inmuebles ───────────────────────────────────
-    @GetMapping("/api/inmuebles")
-    @ResponseBody
-    public List<Property> apiList() {
-        return propertyRepository.findAllByOrderByPropertyCodeAsc()
-                .stream()
-                .filter(p -> !p.isSold())
-                .collect(Collectors.toList());
+        catalogSnapshot.invalidate();
     }
 }
@@ -1,12 +1,18 @@
 package com.inmobiliaria.app.web;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.inmobiliaria.app.domain.MediaUploadJob;
+import com.inmobiliaria.app.domain.MediaUploadStatus;
 import com.inmobiliaria.app.domain.Property;
 import com.inmobiliaria.app.domain.PropertyMedia;
 import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.repo.MediaUploadJobRepository;
 import com.inmobiliaria.app.repo.PropertyMediaRepository;
 import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.service.ImageVariant;
+import com.inmobiliaria.app.service.MediaIngestionService;
+import com.inmobiliaria.app.service.PropertyDeletionService;
+import com.inmobiliaria.app.service.PublicCatalogSnapshot;
+import com.inmobiliaria.app.service.ResponsiveImages;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -16,6 +22,9 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,16 +34,28 @@ public class PropertyDetailController {
     private final PropertyRepository                  propertyRepository;
     private final PropertyMediaRepository             mediaRepository;
     private final ClientPropertyInteractionRepository interactionRepository;
-    private final Cloudinary                          cloudinary;
+    private final PropertyDeletionService             propertyDeletion;
+    private final MediaUploadJobRepository            jobRepository;
+    private final MediaIngestionService               mediaIngestion;
+    private final ResponsiveImages                    responsiveImages;
+    private final PublicCatalogSnapshot               catalogSnapshot;
 
     public PropertyDetailController(PropertyRepository propertyRepository,
                                     PropertyMediaRepository mediaRepository,
                                     ClientPropertyInteractionRepository interactionRepository,
-                                    Cloudinary cloudinary) {
+                                    PropertyDeletionService propertyDeletion,
+                                    MediaUploadJobRepository jobRepository,
+                                    MediaIngestionService mediaIngestion,
+                                    ResponsiveImages responsiveImages,
+                                    PublicCatalogSnapshot catalogSnapshot) {
         this.propertyRepository    = propertyRepository;
         this.mediaRepository       = mediaRepository;
         this.interactionRepository = interactionRepository;
-        this.cloudinary            = cloudinary;
+        this.propertyDeletion      = propertyDeletion;
+        this.jobRepository         = jobRepository;
+        this.mediaIngestion        = mediaIngestion;
+        this.responsiveImages      = responsiveImages;
+        this.catalogSnapshot       = catalogSnapshot;
     }
 
     // ── GET /inmuebles/{id} ──────────────────────────────────
@@ -45,10 +66,15 @@ public class PropertyDetailController {
 
         List<PropertyMedia> media = mediaRepository.findByPropertyIdOrderByIdAsc(id);
         long interestedCount = interactionRepository.countByPropertyId(id);
+        List<MediaUploadJob> activeJobs = jobRepository.findTop50ByPropertyIdOrderByIdDesc(id).stream()
+                .filter(j -> j.getStatus() != MediaUploadStatus.COMPLETADO)
+                .toList();
 
         model.addAttribute("property",        property);
         model.addAttribute("mediaList",       media);
         model.addAttribute("interestedCount", interestedCount);
+        model.addAttribute("uploadJobs",      activeJobs);
+        model.addAttribute("thumbUrls",       thumbUrls(media));
         return "property_detail";
     }
 
@@ -80,6 +106,7 @@ public class PropertyDetailController {
         p.setNotes(t(notes));
         p.setPrecio(precio);
         propertyRepository.save(p);
+        catalogSnapshot.invalidate();
 
         return "redirect:/inmuebles/" + id;
     }
@@ -93,6 +120,7 @@ public class PropertyDetailController {
 
         p.setPublicado(!p.isPublicado());
         propertyRepository.save(p);
+        catalogSnapshot.invalidate();
 
         return ResponseEntity.ok(Map.of(
             "publicado", p.isPublicado(),
@@ -101,6 +129,7 @@ public class PropertyDetailController {
     }
 
     // ── POST /inmuebles/{id}/media ───────────────────────────
+    // Solo se guardan en staging y se encolan; la subida al almacén va en segundo plano
     @PostMapping("/inmuebles/{id}/media")
     public String uploadMedia(@PathVariable Long id,
                               @RequestParam("files") List<MultipartFile> files) throws IOException {
@@ -108,88 +137,51 @@ public class PropertyDetailController {
         Property property = propertyRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
-        for (MultipartFile file : files) {
-            if (file.isEmpty()) continue;
-
-            String contentType  = file.getContentType() != null ? file.getContentType() : "";
-            String originalName = file.getOriginalFilename() != null
-                                  ? file.getOriginalFilename() : "file";
-
-            // ── Determinar resource_type para Cloudinary ──────
-            String resourceType;
-            if (contentType.startsWith("video/")) {
-                resourceType = "video";
-            } else if (contentType.equals("application/pdf")
-                    || contentType.startsWith("application/msword")
-                    || contentType.startsWith("application/vnd")) {
-                resourceType = "raw";
-            } else {
-                resourceType = "image";
-            }
-
-            // ── Determinar mediaType interno ──────────────────
-            String mediaType;
-            if      (resourceType.equals("video"))               mediaType = "VIDEO";
-            else if (contentType.equals("application/pdf"))      mediaType = "PDF";
-            else if (resourceType.equals("raw"))                 mediaType = "DOCUMENT";
-            else                                                  mediaType = "IMAGE";
-
-            // ── Params de subida ──────────────────────────────
-            Map<String, Object> uploadParams;
-            if (resourceType.equals("raw")) {
-                String ext = "";
-                int dot = originalName.lastIndexOf('.');
-                if (dot > 0) ext = originalName.substring(dot);
-                uploadParams = ObjectUtils.asMap(
-                    "resource_type", "raw",
-                    "public_id",     "inmobiliaria/" + id + "/" + System.currentTimeMillis() + ext,
-                    "use_filename",  false,
-                    "access_mode",   "public"
-                );
-            } else {
-                uploadParams = ObjectUtils.asMap(
-                    "resource_type", resourceType,
-                    "folder",        "inmobiliaria/" + id
-                );
-            }
-
-            Map<?, ?> result = cloudinary.uploader().upload(file.getBytes(), uploadParams);
+        mediaIngestion.enqueue(property, files);
+        return "redirect:/inmuebles/" + id + "#tab-media";
+    }
 
-            PropertyMedia media = new PropertyMedia();
-            media.setProperty(property);
-            media.setOriginalName(originalName);
-            media.setMediaType(mediaType);
-            media.setContentType(contentType);
-            media.setCloudinaryUrl((String) result.get("secure_url"));
-            media.setCloudinaryPublicId((String) result.get("public_id"));
-            mediaRepository.save(media);
+    // ── GET /inmuebles/{id}/media/jobs ── (progreso, JSON) ───
+    @GetMapping("/inmuebles/{id}/media/jobs")
+    @ResponseBody
+    public List<Map<String, Object>> uploadJobs(@PathVariable Long id) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        for (MediaUploadJob job : jobRepository.findTop50ByPropertyIdOrderByIdDesc(id)) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("id",           job.getId());
+            m.put("originalName", job.getOriginalName());
+            m.put("status",       job.getStatus().name());
+            m.put("attempts",     job.getAttempts());
+            m.put("received",     job.getReceivedBytes());
+            m.put("size",         job.getTotalSize());
+            m.put("error",        job.getLastError());
+            m.put("mediaId",      job.getMediaId());
+            out.add(m);
         }
-
-        return "redirect:/inmuebles/" + id;
+        return out;
     }
 
     // ── POST /inmuebles/{id}/media/{mediaId}/eliminar ────────
     @PostMapping("/inmuebles/{id}/media/{mediaId}/eliminar")
     public String deleteMedia(@PathVariable Long id,
-                              @PathVariable Long mediaId) throws IOException {
-
-        PropertyMedia media = mediaRepository.findById(mediaId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-
-        if (media.getCloudinaryPublicId() != null && !media.getCloudinaryPublicId().isBlank()) {
-            String resourceType = "VIDEO".equals(media.getMediaType()) ? "video"
-                                : "IMAGE".equals(media.getMediaType()) ? "image"
-                                : "raw";
-            cloudinary.uploader().destroy(
-                media.getCloudinaryPublicId(),
-                ObjectUtils.asMap("resource_type", resourceType)
-            );
+                              @PathVariable Long mediaId) {
+        if (!propertyDeletion.deleteMedia(id, mediaId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
-
-        mediaRepository.delete(media);
         return "redirect:/inmuebles/" + id;
     }
 
-    // ── Helper ────────────────────────────────────────────────
+    // ── Helpers ───────────────────────────────────────────────
     private static String t(String s) { return s == null ? "" : s.trim(); }
+
+    // Miniatura de cada foto de la galería; el lightbox sigue usando la original
+    private Map<Long, String> thumbUrls(List<PropertyMedia> media) {
+        Map<Long, String> thumbs = new HashMap<>();
+        for (PropertyMedia m : media) {
+            if ("IMAGE".equals(m.getMediaType())) {
+                thumbs.put(m.getId(), responsiveImages.url(m.getCloudinaryUrl(), ImageVariant.THUMB));
+            }
+        }
+        return thumbs;
+    }
 }
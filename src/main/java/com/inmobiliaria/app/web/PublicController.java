@@ -1,41 +1,62 @@
 package com.inmobiliaria.app.web;
 
 import com.inmobiliaria.app.domain.Property;
-import com.inmobiliaria.app.domain.PropertyMedia;
-import com.inmobiliaria.app.repo.PropertyMediaRepository;
 import com.inmobiliaria.app.repo.PropertyRepository;
-import com.inmobiliaria.app.service.EmailService;
+import com.inmobiliaria.app.repo.PropertySpecifications;
+import com.inmobiliaria.app.service.CoverImageResolver;
+import com.inmobiliaria.app.service.LeadService;
+import com.inmobiliaria.app.service.PublicCatalogSnapshot;
+import com.inmobiliaria.app.service.ResponsiveImages;
+import com.inmobiliaria.app.web.dto.PublicMediaDto;
+import com.inmobiliaria.app.web.dto.PublicPropertyDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Controller
 public class PublicController {
 
-    private final PropertyRepository      propertyRepository;
-    private final PropertyMediaRepository mediaRepository;
-    private final EmailService            emailService;
+    private static final int MAX_PAGE_SIZE = 60;
+
+    // Navegador y proxies pueden reutilizar la página 1 min; después revalidan con el ETag
+    private static final String CACHE_CONTROL = "public, max-age=60";
+
+    private final PropertyRepository    propertyRepository;
+    private final CoverImageResolver    coverImageResolver;
+    private final ResponsiveImages      responsiveImages;
+    private final PublicCatalogSnapshot catalogSnapshot;
+    private final LeadService           leadService;
 
     public PublicController(PropertyRepository propertyRepository,
-                            PropertyMediaRepository mediaRepository,
-                            EmailService emailService) {
+                            CoverImageResolver coverImageResolver,
+                            ResponsiveImages responsiveImages,
+                            PublicCatalogSnapshot catalogSnapshot,
+                            LeadService leadService) {
         this.propertyRepository = propertyRepository;
-        this.mediaRepository    = mediaRepository;
-        this.emailService       = emailService;
+        this.coverImageResolver = coverImageResolver;
+        this.responsiveImages   = responsiveImages;
+        this.catalogSnapshot    = catalogSnapshot;
+        this.leadService        = leadService;
     }
 
     // ── GET / → Landing page ─────────────────────────────
     @GetMapping("/")
-    public String home(Model model) {
-        List<Property> destacados = propertyRepository
-                .findByPublicadoTrueAndSoldFalseOrderByIdDesc()
+    public String home(ServletWebRequest request, Model model) {
+        if (notModified(request)) return null;
+
+        List<PublicPropertyDto> destacados = catalogSnapshot.get()
+                .getListings()
                 .stream().limit(3).toList();
-        asignarPortadas(destacados);
         model.addAttribute("destacados", destacados);
         return "public/home";
     }
@@ -50,91 +71,35 @@ public class PublicController {
             @RequestParam(required = false) String provincia,
             @RequestParam(required = false) String estado,   // "disponible" | "prevendido"
             @RequestParam(required = false) String orden,    // "precio_asc" | "precio_desc" | "reciente"
+            @RequestParam(defaultValue = "0")  int page,
+            @RequestParam(defaultValue = "24") int size,
+            ServletWebRequest request,
             Model model) {
 
-        // 1. Carga base: solo publicados y no vendidos definitivamente
-        List<Property> propiedades = propertyRepository
-                .findByPublicadoTrueAndSoldFalseOrderByIdDesc();
-
-        // 2. Filtros en memoria (evita N queries extra)
-        propiedades = propiedades.stream()
-
-            // Tipo de inmueble
-            .filter(p -> tipo == null || tipo.isBlank()
-                    || tipo.equalsIgnoreCase(p.getPropertyType()))
-
-            // Precio mínimo
-            .filter(p -> precioMin == null
-                    || (p.getPrecio() != null && p.getPrecio() >= precioMin))
-
-            // Precio máximo
-            .filter(p -> precioMax == null
-                    || (p.getPrecio() != null && p.getPrecio() <= precioMax))
-
-            // Municipio / ciudad (contains, case-insensitive)
-            .filter(p -> municipio == null || municipio.isBlank()
-                    || (p.getMunicipality() != null
-                        && p.getMunicipality().toLowerCase()
-                           .contains(municipio.toLowerCase().trim())))
-
-            // Provincia
-            .filter(p -> provincia == null || provincia.isBlank()
-                    || (p.getProvince() != null
-                        && p.getProvince().toLowerCase()
-                           .contains(provincia.toLowerCase().trim())))
-
-            // Estado: prevendido o disponible
-            .filter(p -> {
-                if ("prevendido".equalsIgnoreCase(estado)) return p.isPreVendido();
-                if ("disponible".equalsIgnoreCase(estado)) return !p.isPreVendido();
-                return true; // sin filtro = todos
-            })
-
-            .collect(Collectors.toList());
-
-        // 3. Ordenación
-        if ("precio_asc".equals(orden)) {
-            propiedades.sort((a, b) -> {
-                if (a.getPrecio() == null) return 1;
-                if (b.getPrecio() == null) return -1;
-                return a.getPrecio().compareTo(b.getPrecio());
-            });
-        } else if ("precio_desc".equals(orden)) {
-            propiedades.sort((a, b) -> {
-                if (a.getPrecio() == null) return 1;
-                if (b.getPrecio() == null) return -1;
-                return b.getPrecio().compareTo(a.getPrecio());
-            });
-        }
-        // "reciente" ya viene ordenado por id desc del repositorio
-
-        // 4. Portadas
-        asignarPortadas(propiedades);
-
-        // 5. Listas para los selects del filtro
-        List<String> tipos      = propertyRepository.findTiposPublicados();
-        List<String> municipios = propiedades.stream()
-                .map(Property::getMunicipality)
-                .filter(m -> m != null && !m.isBlank())
-                .distinct().sorted().collect(Collectors.toList());
-        List<String> provincias = propiedades.stream()
-                .map(Property::getProvince)
-                .filter(p -> p != null && !p.isBlank())
-                .distinct().sorted().collect(Collectors.toList());
-
-        // Precio máximo disponible para el slider
-        int maxPrecioDisponible = propertyRepository
-                .findByPublicadoTrueAndSoldFalseOrderByIdDesc()
-                .stream()
-                .filter(p -> p.getPrecio() != null)
-                .mapToInt(Property::getPrecio)
-                .max().orElse(1_000_000);
-
-        model.addAttribute("propiedades",          propiedades);
-        model.addAttribute("tipos",                tipos);
-        model.addAttribute("municipios",           municipios);
-        model.addAttribute("provincias",           provincias);
-        model.addAttribute("maxPrecioDisponible",  maxPrecioDisponible);
+        if (notModified(request)) return null;
+
+        // 1. Filtros, orden y paginación en BD (idx_properties_public)
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        Page<Property> resultado = propertyRepository.findAll(
+                PropertySpecifications.publicCatalog(
+                        tipo, precioMin, precioMax, municipio, provincia, estado, orden),
+                pageable);
+
+        // 2. Portadas de la página en una sola query
+        Map<Long, String> portadas = coverImageResolver.resolve(
+                resultado.getContent().stream().map(Property::getId).toList());
+        Page<PublicPropertyDto> pagina = resultado.map(
+                p -> responsiveImages.card(p, portadas.get(p.getId())));
+
+        // 3. Facetas para los selects del filtro (agregados cacheados en la foto)
+        PublicCatalogSnapshot.Snapshot snapshot = catalogSnapshot.get();
+
+        model.addAttribute("propiedades",          pagina.getContent());
+        model.addAttribute("pagina",               pagina);
+        model.addAttribute("tipos",                snapshot.getTipos());
+        model.addAttribute("municipios",           snapshot.getMunicipios());
+        model.addAttribute("provincias",           snapshot.getProvincias());
+        model.addAttribute("maxPrecioDisponible",  snapshot.getMaxPrecio());
 
         // Devolver los filtros activos para repintar el formulario
         model.addAttribute("tipoActivo",    tipo);
@@ -150,21 +115,22 @@ public class PublicController {
 
     // ── GET /catalogo/{id} ────────────────────────────────
     @GetMapping("/catalogo/{id}")
-    public String detalle(@PathVariable Long id, Model model) {
-        Property property = propertyRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    public String detalle(@PathVariable Long id, ServletWebRequest request, Model model) {
+        if (notModified(request)) return null;
 
-        if (!property.isPublicado() || property.isSold()) {
+        PublicCatalogSnapshot.Snapshot snapshot = catalogSnapshot.get();
+        PublicPropertyDto property = snapshot.find(id);
+        if (property == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
 
-        List<PropertyMedia> media = mediaRepository.findByPropertyIdOrderByIdAsc(id);
+        List<PublicMediaDto> media = snapshot.mediaOf(id);
 
-        PropertyMedia firstImage = media.stream()
+        PublicMediaDto firstImage = media.stream()
                 .filter(m -> "IMAGE".equals(m.getMediaType()))
                 .findFirst().orElse(null);
 
-        PropertyMedia firstVideo = media.stream()
+        PublicMediaDto firstVideo = media.stream()
                 .filter(m -> "VIDEO".equals(m.getMediaType()))
                 .findFirst().orElse(null);
 
@@ -183,15 +149,12 @@ public class PublicController {
                            @RequestParam(required = false) String email,
                            @RequestParam(required = false) String mensaje) {
 
-        Property property = propertyRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-
-        if (!property.isPublicado() || property.isSold()) {
+        PublicPropertyDto property = catalogSnapshot.get().find(id);
+        if (property == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
 
-        emailService.enviarConsultaInmueble(
-            property.getPropertyCode(), nombre, telefono, email, mensaje);
+        leadService.consultaInmueble(property, nombre, telefono, email, mensaje);
         return "redirect:/catalogo/" + id + "?enviado";
     }
 
@@ -204,18 +167,15 @@ public class PublicController {
             @RequestParam(required = false) String motivo,
             @RequestParam(required = false) String mensaje) {
 
-        emailService.enviarConsultaGeneral(nombre, telefono, email, motivo, mensaje);
+        leadService.consultaGeneral(nombre, telefono, email, motivo, mensaje);
         return "redirect:/?enviado#contacto";
     }
 
-    // ── Helper ────────────────────────────────────────────
-    private void asignarPortadas(List<Property> propiedades) {
-        propiedades.forEach(p ->
-            mediaRepository.findByPropertyIdOrderByIdAsc(p.getId())
-                .stream()
-                .filter(m -> "IMAGE".equals(m.getMediaType()))
-                .findFirst()
-                .ifPresent(m -> p.setPortadaUrl(m.getCloudinaryUrl()))
-        );
+    // ── Helpers ───────────────────────────────────────────
+    // Las páginas públicas solo dependen del catálogo: si el navegador ya tiene
+    // la versión actual, 304 antes de tocar la BD o pintar la plantilla.
+    private boolean notModified(ServletWebRequest request) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        return request.checkNotModified(catalogSnapshot.etag(), catalogSnapshot.lastModified());
     }
-}
\ No newline at end of file
+}
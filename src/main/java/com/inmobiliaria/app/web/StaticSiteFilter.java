@@ -0,0 +1,82 @@
+package com.inmobiliaria.app.web;
+
+import com.inmobiliaria.app.service.StaticSiteGenerator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sirve la copia estática de StaticSiteGenerator para /, /catalogo y
+ * /catalogo/{id} sin query string: ni Spring MVC, ni BD, ni Thymeleaf.
+ * Si el fichero no existe (modo desactivado, aún sin generar, inmueble
+ * despublicado) la petición sigue a PublicController como siempre.
+ */
+@Component
+public class StaticSiteFilter extends OncePerRequestFilter {
+
+    private static final String CACHE_CONTROL = "public, max-age=60";
+
+    private final StaticSiteGenerator generator;
+
+    public StaticSiteFilter(StaticSiteGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !generator.isEnabled()
+                || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))
+                || request.getQueryString() != null
+                // El propio generador pintando la página; la cabecera sin su token no cuenta
+                || generator.isRenderToken(request.getHeader(StaticSiteGenerator.RENDER_HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        Path html = generator.pageFile(request.getRequestURI().substring(request.getContextPath().length()));
+        if (html == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        Path gz = html.resolveSibling(html.getFileName() + ".gz");
+        boolean gzip = accept != null && accept.contains("gzip") && Files.isRegularFile(gz);
+        Path file = gzip ? gz : html;
+
+        // Se abre primero: si el generador lo reemplaza entre medias, se sirve el abierto
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size         = channel.size();
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String etag = "\"st-" + Long.toHexString(lastModified) + "-" + Long.toHexString(size)
+                    + (gzip ? "-gz\"" : "\"");
+            if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) return;
+
+            response.setContentType("text/html;charset=UTF-8");
+            response.setContentLengthLong(size);
+            if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            if ("HEAD".equals(request.getMethod())) return;
+
+            channel.transferTo(0, size, Channels.newChannel(response.getOutputStream()));
+        } catch (NoSuchFileException ex) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -45,20 +45,6 @@ public class VisitController {
     public String scheduled(Model model) {
         List<Visit> visits = visitRepository.findByStatusOrderByDateDescTimeAsc(VisitStatus.PROGRAMADA);
         enrichModel(model, visits);
-
-        List<Map<String, Object>> propertiesDto = propertyRepository
-                .findAllByOrderByPropertyCodeAsc()
-                .stream()
-                .map(p -> {
-                    Map<String, Object> m = new LinkedHashMap<>();
-                    m.put("id",           p.getId());
-                    m.put("propertyCode", p.getPropertyCode());
-                    m.put("municipality", p.getMunicipality());
-                    return m;
-                })
-                .collect(Collectors.toList());
-
-        model.addAttribute("allProperties", propertiesDto);
         return "visits_scheduled";
     }
 
@@ -152,7 +138,7 @@ public class VisitController {
             @RequestParam("propertyId") Long propertyId) {
 
         return interactionRepository
-                .findByProperty_IdOrderByContactDateDesc(propertyId)
+                .findByPropertyIdWithClientOrderByContactDateDesc(propertyId)
                 .stream()
                 .map(i -> {
                     Map<String, Object> m = new LinkedHashMap<>();
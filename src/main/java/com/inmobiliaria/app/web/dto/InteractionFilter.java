@@ -0,0 +1,71 @@
+package com.inmobiliaria.app.web.dto;
+
+import com.inmobiliaria.app.domain.ContactChannel;
+import com.inmobiliaria.app.domain.InterestStatus;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Filtros de /interesados ya resueltos (estados como enums, texto como ids del
+ * índice de búsqueda). Lo comparten el listado paginado y la exportación CSV.
+ * Cada lista de ids viene acotada a SearchIndex.MAX_HITS; {@code truncated}
+ * indica que alguna se cortó y el resultado está incompleto.
+ * Los getters *Param devuelven valores listos para la query: un IN con colección
+ * vacía no es válido, así que se sustituye por un id inexistente.
+ */
+public class InteractionFilter {
+    private final List<InterestStatus> statuses;
+    private final ContactChannel       channel;
+    private final LocalDate            from;
+    private final LocalDate            to;
+    private final boolean              ndaOnly;
+    private final boolean              textFilter;
+    private final Set<Long>            interactionIds;
+    private final Set<Long>            clientIds;
+    private final Set<Long>            propertyIds;
+    private final boolean              truncated;
+
+    public InteractionFilter(List<InterestStatus> statuses, ContactChannel channel,
+                             LocalDate from, LocalDate to, boolean ndaOnly,
+                             boolean textFilter, Set<Long> interactionIds,
+                             Set<Long> clientIds, Set<Long> propertyIds, boolean truncated) {
+        this.statuses       = statuses;
+        this.channel        = channel;
+        this.from           = from;
+        this.to             = to;
+        this.ndaOnly        = ndaOnly;
+        this.textFilter     = textFilter;
+        this.interactionIds = interactionIds;
+        this.clientIds      = clientIds;
+        this.propertyIds    = propertyIds;
+        this.truncated      = truncated;
+    }
+
+    // Búsqueda de texto sin ningún resultado en el índice: no hace falta ir a BD
+    public boolean matchesNothing() {
+        return textFilter && interactionIds.isEmpty() && clientIds.isEmpty() && propertyIds.isEmpty();
+    }
+
+    // Getters
+    public boolean        isStatusFilter() { return !statuses.isEmpty(); }
+    public ContactChannel getChannel()     { return channel; }
+    public LocalDate      getFrom()        { return from; }
+    public LocalDate      getTo()          { return to; }
+    public boolean        isNdaOnly()      { return ndaOnly; }
+    public boolean        isTextFilter()   { return textFilter; }
+    public boolean        isTruncated()    { return truncated; }
+
+    public Collection<InterestStatus> getStatusesParam() {
+        return statuses.isEmpty() ? List.of(InterestStatus.values()) : statuses;
+    }
+    public Collection<Long> getInteractionIdsParam() { return orSentinel(interactionIds); }
+    public Collection<Long> getClientIdsParam()      { return orSentinel(clientIds); }
+    public Collection<Long> getPropertyIdsParam()    { return orSentinel(propertyIds); }
+
+    private static Collection<Long> orSentinel(Set<Long> ids) {
+        return ids.isEmpty() ? Set.of(0L) : ids;
+    }
+}
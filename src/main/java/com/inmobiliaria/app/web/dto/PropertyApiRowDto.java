@@ -0,0 +1,42 @@
+package com.inmobiliaria.app.web.dto;
+
+/**
+ * Inmueble tal y como lo expone /api/v1/inmuebles: solo datos de catálogo,
+ * proyectados desde la query. Nada de clientes asociados ni campos internos
+ * (código de alarma, notas...).
+ */
+public class PropertyApiRowDto {
+    private final Long    id;
+    private final String  propertyCode;
+    private final String  propertyType;
+    private final String  address;
+    private final String  municipality;
+    private final String  province;
+    private final Integer precio;
+    private final boolean preVendido;
+    private final boolean publicado;
+
+    public PropertyApiRowDto(Long id, String propertyCode, String propertyType,
+                             String address, String municipality, String province,
+                             Integer precio, boolean preVendido, boolean publicado) {
+        this.id           = id;
+        this.propertyCode = propertyCode;
+        this.propertyType = propertyType;
+        this.address      = address;
+        this.municipality = municipality;
+        this.province     = province;
+        this.precio       = precio;
+        this.preVendido   = preVendido;
+        this.publicado    = publicado;
+    }
+
+    public Long    getId()           { return id; }
+    public String  getPropertyCode() { return propertyCode; }
+    public String  getPropertyType() { return propertyType; }
+    public String  getAddress()      { return address; }
+    public String  getMunicipality() { return municipality; }
+    public String  getProvince()     { return province; }
+    public Integer getPrecio()       { return precio; }
+    public boolean isPreVendido()    { return preVendido; }
+    public boolean isPublicado()     { return publicado; }
+}
@@ -0,0 +1,42 @@
+package com.inmobiliaria.app.web.dto;
+
+/**
+ * Fila de la tabla de /inmuebles: solo las columnas que se pintan,
+ * proyectadas directamente desde la query (sin cargar la entidad Property).
+ */
+public class PropertyListRowDto {
+    private final Long    id;
+    private final String  propertyCode;
+    private final String  propertyType;
+    private final String  address;
+    private final String  municipality;
+    private final String  notes;
+    private final boolean sold;
+    private final boolean preVendido;
+    private final boolean publicado;
+
+    public PropertyListRowDto(Long id, String propertyCode, String propertyType,
+                              String address, String municipality, String notes,
+                              boolean sold, boolean preVendido, boolean publicado) {
+        this.id           = id;
+        this.propertyCode = propertyCode;
+        this.propertyType = propertyType;
+        this.address      = address;
+        this.municipality = municipality;
+        this.notes        = notes;
+        this.sold         = sold;
+        this.preVendido   = preVendido;
+        this.publicado    = publicado;
+    }
+
+    // Getters
+    public Long    getId()           { return id; }
+    public String  getPropertyCode() { return propertyCode; }
+    public String  getPropertyType() { return propertyType; }
+    public String  getAddress()      { return address; }
+    public String  getMunicipality() { return municipality; }
+    public String  getNotes()        { return notes; }
+    public boolean isSold()          { return sold; }
+    public boolean isPreVendido()    { return preVendido; }
+    public boolean isPublicado()     { return publicado; }
+}
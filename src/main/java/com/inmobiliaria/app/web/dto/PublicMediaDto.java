@@ -0,0 +1,35 @@
+package com.inmobiliaria.app.web.dto;
+
+import com.inmobiliaria.app.domain.PropertyMedia;
+
+public class PublicMediaDto {
+    private final Long   id;
+    private final String mediaType;
+    private final String cloudinaryUrl;   // original (vídeo, lightbox)
+    private final String thumbUrl;        // fotos: miniatura de galería
+    private final String displayUrl;      // fotos: foto principal de la ficha
+    private final String srcset;          // fotos: null si no hay versiones reducidas
+
+    public PublicMediaDto(Long id, String mediaType, String cloudinaryUrl,
+                          String thumbUrl, String displayUrl, String srcset) {
+        this.id            = id;
+        this.mediaType     = mediaType;
+        this.cloudinaryUrl = cloudinaryUrl;
+        this.thumbUrl      = thumbUrl;
+        this.displayUrl    = displayUrl;
+        this.srcset        = srcset;
+    }
+
+    public static PublicMediaDto of(PropertyMedia m, String thumbUrl, String displayUrl, String srcset) {
+        return new PublicMediaDto(m.getId(), m.getMediaType(), m.getCloudinaryUrl(),
+                thumbUrl, displayUrl, srcset);
+    }
+
+    // Getters
+    public Long   getId()            { return id; }
+    public String getMediaType()     { return mediaType; }
+    public String getCloudinaryUrl() { return cloudinaryUrl; }
+    public String getThumbUrl()      { return thumbUrl; }
+    public String getDisplayUrl()    { return displayUrl; }
+    public String getSrcset()        { return srcset; }
+}
@@ -0,0 +1,59 @@
+package com.inmobiliaria.app.web.dto;
+
+import com.inmobiliaria.app.domain.Property;
+
+/**
+ * Vista inmutable de un inmueble publicado para la web pública.
+ * No arrastra clientes ni campos internos (alarma, notas...).
+ */
+public class PublicPropertyDto {
+    private final Long    id;
+    private final String  propertyCode;
+    private final String  propertyType;
+    private final String  address;
+    private final String  municipality;
+    private final String  province;
+    private final String  description;
+    private final Integer precio;
+    private final boolean preVendido;
+    private final String  portadaUrl;      // versión de tarjeta
+    private final String  portadaSrcset;
+
+    public PublicPropertyDto(Long id, String propertyCode, String propertyType,
+                             String address, String municipality, String province,
+                             String description, Integer precio,
+                             boolean preVendido, String portadaUrl, String portadaSrcset) {
+        this.id            = id;
+        this.propertyCode  = propertyCode;
+        this.propertyType  = propertyType;
+        this.address       = address;
+        this.municipality  = municipality;
+        this.province      = province;
+        this.description   = description;
+        this.precio        = precio;
+        this.preVendido    = preVendido;
+        this.portadaUrl    = portadaUrl;
+        this.portadaSrcset = portadaSrcset;
+    }
+
+    public static PublicPropertyDto of(Property p, String portadaUrl, String portadaSrcset) {
+        return new PublicPropertyDto(
+                p.getId(), p.getPropertyCode(), p.getPropertyType(),
+                p.getAddress(), p.getMunicipality(), p.getProvince(),
+                p.getDescription(), p.getPrecio(),
+                p.isPreVendido(), portadaUrl, portadaSrcset);
+    }
+
+    // Getters
+    public Long    getId()            { return id; }
+    public String  getPropertyCode()  { return propertyCode; }
+    public String  getPropertyType()  { return propertyType; }
+    public String  getAddress()       { return address; }
+    public String  getMunicipality()  { return municipality; }
+    public String  getProvince()      { return province; }
+    public String  getDescription()   { return description; }
+    public Integer getPrecio()        { return precio; }
+    public boolean isPreVendido()     { return preVendido; }
+    public String  getPortadaUrl()    { return portadaUrl; }
+    public String  getPortadaSrcset() { return portadaSrcset; }
+}
@@ -47,34 +47,46 @@
 
   let currentHighlight = -1;
   let visibleOptions   = [];
+  let debounceTimer    = null;
 
-  const allItems = (CATALOG || [])
-    .filter(p => !p.sold)
-    .map(p => ({
+  // Búsqueda en el servidor (/api/catalog/search), como en el alta de interés
+  function toItem(p) {
+    return {
       code        : p.propertyCode  || '',
       type        : p.propertyType  || '',
       address     : p.address       || '',
       municipality: p.municipality  || '',
       preVendido  : p.preVendido    || false,
       label       : [p.propertyCode, p.propertyType, p.municipality].filter(Boolean).join(' · ')
-    }));
+    };
+  }
 
   function escHtml(str) {
     return (str||'').replace(/&/g,'&amp;').replace(/</g,'&lt;').replace(/>/g,'&gt;').replace(/"/g,'&quot;');
   }
 
-  function renderDropdown(q) {
+  function fetchAndRender(q) {
+    clearTimeout(debounceTimer);
+    const query = (q || '').trim();
+    if (query.length < 2) {
+      dropdown.innerHTML = '<div class="combo-empty">Escribe al menos 2 caracteres...</div>';
+      dropdown.classList.add('open');
+      return;
+    }
+    debounceTimer = setTimeout(() => {
+      fetch('/api/catalog/search?q=' + encodeURIComponent(query))
+        .then(r => r.json())
+        .then(items => renderDropdown((items || []).map(toItem)))
+        .catch(() => {
+          dropdown.innerHTML = '<div class="combo-empty">Error al cargar resultados.</div>';
+        });
+    }, 250);
+  }
+
+  function renderDropdown(items) {
     dropdown.innerHTML = '';
     currentHighlight   = -1;
-    const lq = (q || '').trim().toLowerCase();
-    visibleOptions = lq === ''
-      ? allItems
-      : allItems.filter(item =>
-          item.code.toLowerCase().includes(lq)         ||
-          item.type.toLowerCase().includes(lq)         ||
-          item.municipality.toLowerCase().includes(lq) ||
-          item.address.toLowerCase().includes(lq)
-        );
+    visibleOptions     = items;
     if (visibleOptions.length === 0) {
       dropdown.innerHTML = '<div class="combo-empty">Sin resultados</div>';
       dropdown.classList.add('open');
@@ -121,7 +133,7 @@
     });
   }
 
-  function openDropdown(q) { renderDropdown(q); }
+  function openDropdown(q) { fetchAndRender(q); }
   function closeDropdown()  { dropdown.classList.remove('open'); currentHighlight = -1; }
 
   function setHighlight(idx) {
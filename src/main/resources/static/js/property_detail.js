@@ -13,6 +13,12 @@
     });
   });
 
+  // Tras subir archivos se vuelve con #tab-media
+  if (location.hash.startsWith('#tab-')) {
+    const btn = document.querySelector('.tab-btn[data-tab="' + location.hash.substring(5) + '"]');
+    if (btn) btn.click();
+  }
+
   /* ── TOGGLE PUBLICAR ── */
   const toggleEl    = document.getElementById('togglePublicar');
   const publishWrap = document.getElementById('publishWrap');
@@ -20,7 +26,8 @@
   const publishSub  = document.getElementById('publishSub');
   const publishStat = document.getElementById('publishStatus');
   const propertyId  = document.body.dataset.propertyId;
-  const csrfToken   = document.body.dataset.csrf;
+  const csrfToken   = document.querySelector('meta[name="_csrf"]')?.getAttribute('content') || '';
+  const csrfHeader  = document.querySelector('meta[name="_csrf_header"]')?.getAttribute('content') || 'X-CSRF-TOKEN';
 
   if (toggleEl) {
     toggleEl.addEventListener('change', () => {
@@ -30,7 +37,7 @@
         method: 'POST',
         headers: {
           'Content-Type': 'application/x-www-form-urlencoded',
-          'X-CSRF-TOKEN': csrfToken
+          [csrfHeader]: csrfToken
         },
         body: 'publicado=' + checked
       })
@@ -105,4 +112,134 @@
     });
   }
 
-})();
\ No newline at end of file
+  /* ── PROGRESO DE SUBIDAS ── */
+  const jobsList = document.getElementById('uploadJobs');
+  const STATUS_LABEL = { RECIBIENDO: 'Incompleta', PENDIENTE: 'En cola', SUBIENDO: 'Subiendo…', COMPLETADO: 'Listo', ERROR: 'Error' };
+
+  function renderJobs(jobs) {
+    jobsList.innerHTML = '';
+    jobs.forEach(j => {
+      const li = document.createElement('li');
+      li.className = 'upload-job is-' + j.status.toLowerCase();
+      const name = document.createElement('span');
+      name.className = 'upload-job-name';
+      name.textContent = j.originalName;
+      const status = document.createElement('span');
+      status.className = 'upload-job-status';
+      status.textContent = STATUS_LABEL[j.status] || j.status;
+      if (j.error) status.title = j.error;
+      li.append(name, status);
+      jobsList.appendChild(li);
+    });
+    jobsList.hidden = jobs.length === 0;
+  }
+
+  function pollJobs() {
+    fetch('/inmuebles/' + propertyId + '/media/jobs', { headers: { 'Accept': 'application/json' } })
+      .then(r => r.ok ? r.json() : Promise.reject(r.status))
+      .then(all => {
+        const visible = all.filter(j => j.status !== 'COMPLETADO');
+        renderJobs(visible);
+        if (visible.some(j => j.status === 'PENDIENTE' || j.status === 'SUBIENDO')) {
+          setTimeout(pollJobs, 2000);
+        } else {
+          // Todo subido: recargar para ver los nuevos medios en la galería
+          location.replace(location.pathname + '#tab-media');
+          location.reload();
+        }
+      })
+      .catch(() => setTimeout(pollJobs, 5000));
+  }
+
+  if (jobsList && jobsList.querySelector('.is-pendiente, .is-subiendo')) {
+    setTimeout(pollJobs, 2000);
+  }
+
+  /* ── SUBIDA POR TROZOS (reanudable) ── */
+  // Cada fichero se envía en trozos; si se corta la conexión se pregunta al
+  // servidor cuánto llegó y se sigue desde ahí. Sin JS el formulario sube igual.
+  const uploadForm = document.getElementById('uploadForm');
+  const uploadsUrl = '/inmuebles/' + propertyId + '/media/uploads';
+  const MAX_RETRIES = 8;
+
+  const wait = ms => new Promise(resolve => setTimeout(resolve, ms));
+
+  function api(method, url, body, headers) {
+    return fetch(url, {
+      method: method,
+      body: body,
+      headers: Object.assign({ [csrfHeader]: csrfToken, 'Accept': 'application/json' }, headers || {})
+    }).then(r => r.json().catch(() => ({})).then(data => ({ status: r.status, data: data })));
+  }
+
+  async function withRetry(fn) {
+    for (let attempt = 1; ; attempt++) {
+      try {
+        return await fn();
+      } catch (e) {
+        if (attempt >= MAX_RETRIES) throw e;
+        await wait(Math.min(30000, 1000 * 2 ** attempt));
+      }
+    }
+  }
+
+  async function uploadChunked(file, onProgress) {
+    const params = new URLSearchParams({ name: file.name, type: file.type || '', size: file.size });
+    const opened = await withRetry(() => api('POST', uploadsUrl, params));
+    if (opened.status !== 201) throw new Error('No se pudo iniciar la subida (' + opened.status + ')');
+
+    const url       = uploadsUrl + '/' + opened.data.uploadId;
+    const chunkSize = opened.data.chunkSize;
+    let offset      = opened.data.offset;
+
+    while (offset < file.size) {
+      const next = await withRetry(async () => {
+        let res;
+        try {
+          res = await api('PUT', url + '?offset=' + offset, file.slice(offset, offset + chunkSize),
+                          { 'Content-Type': 'application/octet-stream' });
+        } catch (e) {
+          // Conexión cortada: lo que llegara ya está guardado en el servidor
+          const st = await api('GET', url);
+          if (st.status === 200 && st.data.offset > offset) return st.data.offset;
+          throw e;
+        }
+        if (res.status === 200) return res.data.offset;
+        if (res.status === 409 && res.data.offset !== offset) return res.data.offset;
+        throw new Error('HTTP ' + res.status);
+      });
+      offset = next;
+      onProgress(offset / file.size);
+    }
+
+    const done = await withRetry(() => api('POST', url + '/commit'));
+    if (done.status !== 202 && done.status !== 200) throw new Error('No se pudo cerrar la subida (' + done.status + ')');
+  }
+
+  if (uploadForm && window.fetch && window.Blob && Blob.prototype.slice) {
+    uploadForm.addEventListener('submit', async e => {
+      e.preventDefault();
+      const files = Array.from(fileInput.files);
+      if (!files.length) return;
+      uploadBtn.disabled = true;
+      uploadBtn.style.opacity = '0.5';
+
+      const failed = [];
+      for (const file of files) {
+        try {
+          await uploadChunked(file, p => {
+            fileNames.textContent = file.name + ' — ' + Math.floor(p * 100) + '%';
+          });
+        } catch (err) {
+          failed.push(file.name);
+        }
+      }
+      if (failed.length) {
+        alert('No se pudieron subir: ' + failed.join(', ') + '. Vuelve a intentarlo.');
+      }
+      location.replace(location.pathname + '#tab-media');
+      location.reload();
+    });
+  }
+
+})();
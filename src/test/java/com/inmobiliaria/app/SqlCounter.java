@@ -0,0 +1,43 @@
+package com.inmobiliaria.app;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que prepara Hibernate en el hilo actual
+ * (perfil "test": hibernate.session_factory.statement_inspector).
+ *
+ * Por hilo y no con las estadísticas globales de Hibernate: los workers en
+ * segundo plano (índice de búsqueda, outbox de correo, caché de opciones...)
+ * comparten la SessionFactory y ensuciarían el recuento de una petición
+ * MockMvc, que se ejecuta en el hilo del test.
+ *
+ * Guarda también el mayor número de parámetros (?) de una sentencia, para
+ * comprobar que los IN (:ids) no crecen con los aciertos de una búsqueda.
+ */
+public class SqlCounter implements StatementInspector {
+
+    // [0] = sentencias, [1] = máximo de parámetros en una sentencia
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[2]);
+
+    @Override
+    public String inspect(String sql) {
+        int[] c = COUNT.get();
+        c[0]++;
+        c[1] = Math.max(c[1], (int) sql.chars().filter(ch -> ch == '?').count());
+        return sql;
+    }
+
+    public static void reset() {
+        int[] c = COUNT.get();
+        c[0] = 0;
+        c[1] = 0;
+    }
+
+    public static int count() {
+        return COUNT.get()[0];
+    }
+
+    public static int maxParameters() {
+        return COUNT.get()[1];
+    }
+}
@@ -0,0 +1,67 @@
+package com.inmobiliaria.app.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * ContactFormGuard: quien envía sin JavaScript (_t vacío) llega al formulario;
+ * al bot se le finge el envío y a la ráfaga se le devuelve ?error, nunca un
+ * ?enviado falso a un contacto real.
+ */
+class ContactFormGuardTest {
+
+    private final ContactFormGuard guard = new ContactFormGuard(
+            2, Duration.ofMinutes(2), 3, Duration.ofMinutes(20), Duration.ofSeconds(2));
+
+    @Test
+    void emptyFillTimeIsNotABot() throws Exception {
+        MockFilterChain chain = post("10.0.0.1", "", "");
+        assertNotNull(chain.getRequest(), "el envío sin JS no llegó al controlador");
+    }
+
+    @Test
+    void botsAreToldItWasSent() throws Exception {
+        assertRedirect("/?enviado#contacto", "10.0.0.2", "500", "");     // demasiado rápido
+        assertRedirect("/?enviado#contacto", "10.0.0.2", "", "http://x"); // honeypot, también sin JS
+        assertRedirect("/?enviado#contacto", "10.0.0.2", "abc", "");     // _t manipulado
+        assertRedirect("/?enviado#contacto", "10.0.0.2", null, "");      // no viene del formulario
+    }
+
+    @Test
+    void noScriptSubmissionsStillHitTheRateLimit() throws Exception {
+        post("10.0.0.3", "", "");
+        post("10.0.0.3", "", "");
+        assertRedirect("/?error#contacto", "10.0.0.3", "", "");
+    }
+
+    // ── Helpers ───────────────────────────────────────────────
+    private MockFilterChain post(String ip, String fillTime, String honeypot) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        guard.doFilter(request(ip, fillTime, honeypot), new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private void assertRedirect(String expected, String ip, String fillTime, String honeypot) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        guard.doFilter(request(ip, fillTime, honeypot), response, chain);
+        assertNull(chain.getRequest());
+        assertEquals(expected, response.getRedirectedUrl());
+    }
+
+    private static MockHttpServletRequest request(String ip, String fillTime, String honeypot) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/contacto");
+        request.setRemoteAddr(ip);
+        if (fillTime != null) request.setParameter(ContactFormGuard.FILL_TIME, fillTime);
+        request.setParameter(ContactFormGuard.HONEYPOT, honeypot);
+        return request;
+    }
+}
@@ -0,0 +1,177 @@
+package com.inmobiliaria.app.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.inmobiliaria.app.domain.EmailOutboxMessage;
+import com.inmobiliaria.app.repo.EmailOutboxRepository;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.NoSuchProviderException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox contra un SMTP real (GreenMail). El Transport de prueba simula dos
+ * rechazos de RCPT: @rechazado.test siempre, y @greylist.test solo la primera
+ * vez que ve cada dirección (greylisting).
+ */
+class EmailOutboxTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Test
+    void sendsInBatchesAndRetriesOnlyTheFailedOnes() throws Exception {
+        List<EmailOutboxMessage> batch = new ArrayList<>();
+        for (int i = 1; i <= 21; i++) batch.add(new EmailOutboxMessage("cliente" + i + "@example.com", "Alta " + i, "Hola"));
+        // Dos correos idénticos en la misma conexión: se rechaza el primero y sale el segundo
+        EmailOutboxMessage first  = new EmailOutboxMessage("nuevo@greylist.test", "Visita", "Mañana a las 10");
+        EmailOutboxMessage second = new EmailOutboxMessage("nuevo@greylist.test", "Visita", "Mañana a las 10");
+        batch.add(first);
+        batch.add(second);
+        EmailOutboxMessage retried = new EmailOutboxMessage("baja@rechazado.test", "Aviso", "Texto");
+        retried.setAttempts(3);
+        batch.add(retried);
+        EmailOutboxMessage last = new EmailOutboxMessage("fin@rechazado.test", "Aviso", "Texto");
+        last.setAttempts(EmailOutbox.MAX_ATTEMPTS - 1);
+        batch.add(last);
+
+        EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+        when(repository.findDue(anyInt(), any(), any())).thenReturn(batch, List.of());
+
+        EmailOutbox outbox = new EmailOutbox(repository, new GreylistingMailSender(), 2);
+        LocalDateTime before = LocalDateTime.now();
+        try {
+            outbox.start();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline
+                    && (long) outbox.stats().get("sent") + (long) outbox.stats().get("failures") < batch.size()) {
+                Thread.sleep(20);
+            }
+        } finally {
+            outbox.shutdown();
+        }
+
+        // 25 correos, 20 por conexión: dos lotes
+        Map<String, Object> stats = outbox.stats();
+        assertEquals(22L, stats.get("sent"));
+        assertEquals(3L,  stats.get("failures"));
+        assertEquals(1L,  stats.get("givenUp"));
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(22, received.length);
+        assertEquals(1, Arrays.stream(received).filter(m -> to(m).equals("nuevo@greylist.test")).count());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EmailOutboxMessage>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeastOnce()).deleteAllInBatch(deleted.capture());
+        Set<EmailOutboxMessage> gone = ConcurrentHashMap.newKeySet();
+        deleted.getAllValues().forEach(gone::addAll);
+        assertEquals(22, gone.size());
+        assertTrue(gone.contains(second));
+        assertTrue(gone.containsAll(batch.subList(0, 21)));
+
+        // Espera creciente: 30 s tras el primer fallo, 30 << 3 tras el cuarto
+        assertEquals(1, first.getAttempts());
+        assertBackoff(before, first, Duration.ofSeconds(30));
+        assertEquals(4, retried.getAttempts());
+        assertBackoff(before, retried, Duration.ofSeconds(240));
+        assertEquals(EmailOutbox.MAX_ATTEMPTS, last.getAttempts());
+        assertTrue(last.getLastError().contains("550"));
+        verify(repository).save(first);
+        verify(repository).save(retried);
+        verify(repository).save(last);
+    }
+
+    private static void assertBackoff(LocalDateTime before, EmailOutboxMessage m, Duration expected) {
+        LocalDateTime next = m.getNextAttemptAt();
+        assertTrue(!next.isBefore(before.plus(expected)), () -> "demasiado pronto: " + next);
+        assertTrue(next.isBefore(LocalDateTime.now().plus(expected).plusSeconds(1)), () -> "demasiado tarde: " + next);
+    }
+
+    private static String to(MimeMessage m) {
+        try {
+            return m.getAllRecipients()[0].toString();
+        } catch (MessagingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // JavaMailSender de Spring (agrupa y recoge los fallos por mensaje) contra GreenMail
+    private static final class GreylistingMailSender extends JavaMailSenderImpl {
+        private final Set<String> seen = ConcurrentHashMap.newKeySet();
+
+        GreylistingMailSender() {
+            setHost(ServerSetupTest.SMTP.getBindAddress());
+            setPort(ServerSetupTest.SMTP.getPort());
+        }
+
+        @Override
+        protected Transport getTransport(Session session) throws NoSuchProviderException {
+            return new RejectingTransport(session, super.getTransport(session), seen);
+        }
+    }
+
+    private static final class RejectingTransport extends Transport {
+        private final Transport   smtp;
+        private final Set<String> seen;
+
+        RejectingTransport(Session session, Transport smtp, Set<String> seen) {
+            super(session, null);
+            this.smtp = smtp;
+            this.seen = seen;
+        }
+
+        @Override
+        public void connect(String host, int port, String user, String password) throws MessagingException {
+            smtp.connect(host, port, user, password);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return smtp.isConnected();
+        }
+
+        @Override
+        public void close() throws MessagingException {
+            smtp.close();
+        }
+
+        @Override
+        public void sendMessage(Message message, Address[] addresses) throws MessagingException {
+            for (Address a : addresses) {
+                String to = a.toString();
+                if (to.endsWith("@rechazado.test"))
+                    throw new SendFailedException("550 5.1.1 Buzón inexistente: " + to);
+                if (to.endsWith("@greylist.test") && seen.add(to))
+                    throw new SendFailedException("451 4.7.1 Greylisted, inténtelo más tarde: " + to);
+            }
+            smtp.sendMessage(message, addresses);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.inmobiliaria.app.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.inmobiliaria.app.domain.MediaUploadJob;
+import com.inmobiliaria.app.domain.MediaUploadStatus;
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.repo.MediaUploadJobRepository;
+import com.inmobiliaria.app.repo.PropertyMediaRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Subida de un vídeo mayor que el heap: multipart → staging → almacén, por el
+ * mismo camino que PropertyDetailController.uploadMedia, contra el almacén
+ * local y contra Cloudinary (su API simulada con un HttpServer local). Corre en
+ * la ejecución "bounded-memory" de surefire (-Xmx64m); si algún paso leyera el
+ * fichero entero, la prueba acabaría en OutOfMemoryError.
+ */
+@Tag("bounded-memory")
+class LargeUploadTest {
+
+    private static final byte[] TAIL = "fin-del-video".getBytes();
+
+    @TempDir Path dir;
+
+    @Test
+    void uploadLargerThanHeapIsStreamed() throws Exception {
+        long size   = 2 * Runtime.getRuntime().maxMemory();
+        Path source = sparseVideo(size);
+
+        Path uploads = dir.resolve("media");
+        MediaUploadJob job = ingest(new LocalMediaStorage(uploads.toString()), source);
+
+        Path stored;
+        try (Stream<Path> files = Files.list(uploads.resolve("7"))) {
+            stored = files.findFirst().orElseThrow();
+        }
+        assertEquals(size, Files.size(stored));
+        byte[] tail = new byte[TAIL.length];
+        try (RandomAccessFile f = new RandomAccessFile(stored.toFile(), "r")) {
+            f.seek(size - TAIL.length);
+            f.readFully(tail);
+        }
+        assertArrayEquals(TAIL, tail);
+        assertTrue(Files.notExists(Path.of(job.getStagingPath())));
+    }
+
+    // Lo mismo contra Cloudinary (uploadLarge, trozos de 20 MB) con su API simulada en local
+    @Test
+    void cloudinaryUploadLargerThanHeapIsSentInChunks() throws Exception {
+        long size   = 2 * Runtime.getRuntime().maxMemory();
+        Path source = sparseVideo(size);
+
+        List<String> ranges = new CopyOnWriteArrayList<>();
+        AtomicBoolean sawTail = new AtomicBoolean();
+        HttpServer api = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        api.createContext("/v1_1/test/video/upload", exchange -> {
+            ranges.add(exchange.getRequestHeaders().getFirst("Content-Range"));
+            // Se descarta según llega: el servidor comparte el heap de la prueba
+            if (contains(exchange.getRequestBody(), TAIL)) sawTail.set(true);
+            byte[] body = ("{\"public_id\":\"inmobiliaria/7/tour\","
+                    + "\"secure_url\":\"https://res.cloudinary.com/test/video/upload/inmobiliaria/7/tour.mp4\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        api.start();
+        try {
+            Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
+                    "cloud_name",    "test",
+                    "api_key",       "key",
+                    "api_secret",    "secret",
+                    "upload_prefix", "http://127.0.0.1:" + api.getAddress().getPort()));
+            MediaUploadJob job = ingest(new CloudinaryMediaStorage(cloudinary), source);
+            assertTrue(Files.notExists(Path.of(job.getStagingPath())));
+        } finally {
+            api.stop(0);
+        }
+
+        // Trozos contiguos de 20 MB que cubren el fichero entero
+        long chunk = 20L * 1024 * 1024;
+        assertEquals((size + chunk - 1) / chunk, ranges.size(), () -> "Content-Range: " + ranges);
+        long next = 0;
+        for (String range : ranges) {
+            Matcher m = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)").matcher(range);
+            assertTrue(m.matches(), range);
+            assertEquals(next, Long.parseLong(m.group(1)), range);
+            assertEquals(size, Long.parseLong(m.group(3)), range);
+            next = Long.parseLong(m.group(2)) + 1;
+        }
+        assertEquals(size, next);
+        assertTrue(sawTail.get());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────
+
+    // Fichero disperso: no ocupa disco hasta que se copia
+    private Path sparseVideo(long size) throws IOException {
+        Path source = dir.resolve("tour.mp4");
+        try (RandomAccessFile f = new RandomAccessFile(source.toFile(), "rw")) {
+            f.setLength(size);
+            f.seek(size - TAIL.length);
+            f.write(TAIL);
+        }
+        return source;
+    }
+
+    // Multipart → staging → storage, por el mismo camino que PropertyDetailController.uploadMedia
+    private MediaUploadJob ingest(MediaStorage storage, Path source) throws Exception {
+        Property property = new Property();
+        property.setId(7L);
+
+        AtomicLong ids = new AtomicLong();
+        MediaUploadJob[] saved = new MediaUploadJob[1];
+        MediaUploadJobRepository jobs = mock(MediaUploadJobRepository.class);
+        when(jobs.save(any())).thenAnswer(inv -> {
+            MediaUploadJob j = inv.getArgument(0);
+            if (j.getId() == null) ReflectionTestUtils.setField(j, "id", ids.incrementAndGet());
+            saved[0] = j;
+            return j;
+        });
+        when(jobs.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(saved[0]));
+
+        MediaIngestionService ingestion = new MediaIngestionService(jobs, mock(PropertyRepository.class),
+                mock(PropertyMediaRepository.class), storage,
+                mock(MediaDeletionOutbox.class), mock(PublicCatalogSnapshot.class),
+                mock(PlatformTransactionManager.class), dir.resolve("staging").toString(), 1);
+        try {
+            ingestion.enqueue(property, List.of(new DiskPart(source, "video/mp4")));
+            for (int i = 0; i < 1200 && saved[0].getStatus() != MediaUploadStatus.COMPLETADO
+                    && saved[0].getStatus() != MediaUploadStatus.ERROR; i++) {
+                Thread.sleep(50);
+            }
+        } finally {
+            ingestion.shutdown();
+        }
+
+        assertEquals(MediaUploadStatus.COMPLETADO, saved[0].getStatus(), saved[0].getLastError());
+        assertTrue(Files.size(source) > Runtime.getRuntime().maxMemory());
+        return saved[0];
+    }
+
+    // Busca needle en el flujo leyendo por bloques, sin guardarlo
+    private static boolean contains(InputStream in, byte[] needle) throws IOException {
+        byte[] block  = new byte[64 * 1024];
+        byte[] window = new byte[block.length + needle.length];
+        int    kept   = 0;
+        boolean found = false;
+        for (int n; (n = in.read(block)) > 0; ) {
+            System.arraycopy(block, 0, window, kept, n);
+            int len = kept + n;
+            for (int i = 0; !found && i + needle.length <= len; i++) {
+                found = Arrays.equals(window, i, i + needle.length, needle, 0, needle.length);
+            }
+            kept = Math.min(needle.length - 1, len);
+            System.arraycopy(window, len - kept, window, 0, kept);
+        }
+        return found;
+    }
+
+    // Parte multipart en disco, como la que entrega Tomcat con file-size-threshold=0
+    private static final class DiskPart implements MultipartFile {
+        private final Path   file;
+        private final String contentType;
+
+        DiskPart(Path file, String contentType) {
+            this.file        = file;
+            this.contentType = contentType;
+        }
+
+        @Override public String  getName()             { return "files"; }
+        @Override public String  getOriginalFilename() { return file.getFileName().toString(); }
+        @Override public String  getContentType()      { return contentType; }
+        @Override public boolean isEmpty()             { return getSize() == 0; }
+
+        @Override
+        public long getSize() {
+            try {
+                return Files.size(file);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("La subida no debe leerse entera a memoria");
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            transferTo(dest.toPath());
+        }
+
+        @Override
+        public void transferTo(Path dest) throws IOException {
+            Files.copy(file, dest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.MediaUploadJob;
+import com.inmobiliaria.app.domain.MediaUploadStatus;
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.repo.MediaUploadJobRepository;
+import com.inmobiliaria.app.repo.PropertyMediaRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MediaIngestionServiceTest {
+
+    @TempDir Path dir;
+
+    // Subido al almacén pero sin PropertyMedia: no debe quedar huérfano aunque se reintente
+    @Test
+    void failedSaveDestroysTheUploadedFile() throws Exception {
+        Path staged = Files.writeString(dir.resolve("staged"), "foto");
+        Property property = new Property();
+        property.setId(3L);
+        MediaUploadJob job = new MediaUploadJob();
+        ReflectionTestUtils.setField(job, "id", 1L);
+        job.setProperty(property);
+        job.setOriginalName("foto.jpg");
+        job.setContentType("image/jpeg");
+        job.setStagingPath(staged.toString());
+
+        MediaUploadJobRepository jobs = mock(MediaUploadJobRepository.class);
+        when(jobs.findById(anyLong())).thenReturn(Optional.of(job));
+        when(jobs.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(jobs.existsById(anyLong())).thenReturn(true);
+
+        MediaStorage storage = mock(MediaStorage.class);
+        when(storage.store(any(), any(), anyString(), anyString())).thenReturn(new StoredMedia("/uploads/3/a.jpg", "3/a.jpg"));
+        PropertyMediaRepository media = mock(PropertyMediaRepository.class);
+        when(media.save(any())).thenThrow(new IllegalStateException("BD caída"));
+        MediaDeletionOutbox deletions = mock(MediaDeletionOutbox.class);
+
+        MediaIngestionService ingestion = new MediaIngestionService(jobs, mock(PropertyRepository.class), media,
+                storage, deletions, mock(PublicCatalogSnapshot.class), mock(PlatformTransactionManager.class),
+                dir.resolve("staging").toString(), 1);
+        try {
+            ingestion.commitChunked(chunkedDone(job));
+            verify(deletions, timeout(5000)).enqueue("3/a.jpg", "IMAGE");
+            // commitChunked, SUBIENDO y vuelta a PENDIENTE
+            verify(jobs, timeout(5000).times(3)).save(job);
+        } finally {
+            ingestion.shutdown();
+        }
+
+        assertEquals(MediaUploadStatus.PENDIENTE, job.getStatus());
+        assertEquals("BD caída", job.getLastError());
+        assertTrue(Files.exists(staged));
+    }
+
+    // commitChunked() es la vía pública más corta para encolar un trabajo ya en staging
+    private static MediaUploadJob chunkedDone(MediaUploadJob job) {
+        job.setTotalSize(4L);
+        job.setReceivedBytes(4L);
+        return job;
+    }
+}
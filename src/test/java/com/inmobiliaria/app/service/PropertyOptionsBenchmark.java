@@ -0,0 +1,180 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.web.dto.PropertyCatalogDto;
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PropertyOptionsCache a 10k, 100k y 1M inmuebles, frente a buscar en SQL
+ * (LIKE sobre los cuatro campos, H2 en memoria):
+ * <ul>
+ *   <li>{@code search} / {@code searchSql}: una búsqueda del combo;</li>
+ *   <li>{@code patch}: aplicar el cambio de un inmueble a la foto;</li>
+ *   <li>{@code rebuild}: cargar la foto entera (lo que costaba cada cambio antes).</li>
+ * </ul>
+ * No es una prueba: surefire no la ejecuta. Se lanza con
+ * <pre>
+ *   mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       -Dexec.args="-cp %classpath com.inmobiliaria.app.service.PropertyOptionsBenchmark"
+ * </pre>
+ * (los argumentos de JMH, p. ej. {@code -p size=10000 -f 1}, van detrás del nombre de la clase).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PropertyOptionsBenchmark {
+
+    private static final String[] TYPES   = { "Piso", "Chalet", "Local", "Lonja", "Ático", "Garaje" };
+    private static final String[] TOWNS   = { "Bilbao", "Getxo", "Barakaldo", "Leioa", "Durango", "Sopela",
+                                              "Basauri", "Portugalete", "Galdakao", "Erandio" };
+    private static final String[] STREETS = { "Gran Vía", "Calle Mayor", "Avenida Zugazarte", "Plaza Bidebarrieta",
+                                              "Calle Licenciado Poza", "Paseo Campo Volantín", "Calle Iparraguirre" };
+    // Un término, para que el LIKE de SQL sea comparable
+    private static final String[] QUERIES = { "bao", "gran", "0012", "zuga", "lonja", "volan" };
+
+    public static void main(String[] args) throws Exception {
+        String[] all = Arrays.copyOf(args, args.length + 1);
+        all[args.length] = PropertyOptionsBenchmark.class.getSimpleName();
+        Main.main(all);
+    }
+
+    // ── Memoria ──────────────────────────────────────────────
+    @State(Scope.Benchmark)
+    public static class Memory {
+        @Param({ "10000", "100000", "1000000" })
+        int size;
+
+        PropertyCatalogDto[]         rows;
+        PropertyOptionsCache.Options options;
+        Random                       random;
+        int                          next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            rows    = rows(size);
+            options = new PropertyOptionsCache.Options(1, rows.clone());
+            random  = new Random(7);
+        }
+    }
+
+    @Benchmark
+    public List<PropertyCatalogDto> search(Memory m) {
+        return m.options.search(QUERIES[m.next++ % QUERIES.length], 50);
+    }
+
+    // Cada parche parte del anterior, como en el cache (incluida alguna compactación)
+    @Benchmark
+    public PropertyOptionsCache.Options patch(Memory m) {
+        long id = 1 + m.random.nextInt(m.size);
+        m.options = m.options.patch(List.of(id), List.of(row(id, m.random)));
+        return m.options;
+    }
+
+    @Benchmark
+    public PropertyOptionsCache.Options rebuild(Memory m) {
+        return new PropertyOptionsCache.Options(2, m.rows.clone());
+    }
+
+    // ── SQL ──────────────────────────────────────────────────
+    @State(Scope.Benchmark)
+    public static class Sql {
+        @Param({ "10000", "100000", "1000000" })
+        int size;
+
+        Connection        db;
+        PreparedStatement query;
+        int               next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            db = DriverManager.getConnection("jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+            try (Statement st = db.createStatement()) {
+                st.execute("CREATE TABLE properties (id BIGINT PRIMARY KEY, property_code VARCHAR(50), "
+                        + "property_type VARCHAR(50), address VARCHAR(255), municipality VARCHAR(100), "
+                        + "pre_vendido BOOLEAN, sold BOOLEAN)");
+                st.execute("CREATE INDEX idx_properties_code ON properties (property_code)");
+            }
+            try (PreparedStatement insert = db.prepareStatement(
+                    "INSERT INTO properties VALUES (?, ?, ?, ?, ?, ?, FALSE)")) {
+                int n = 0;
+                for (PropertyCatalogDto p : rows(size)) {
+                    insert.setLong(1, p.getId());
+                    insert.setString(2, p.getPropertyCode());
+                    insert.setString(3, p.getPropertyType());
+                    insert.setString(4, p.getAddress());
+                    insert.setString(5, p.getMunicipality());
+                    insert.setBoolean(6, p.isPreVendido());
+                    insert.addBatch();
+                    if (++n % 1000 == 0) insert.executeBatch();
+                }
+                insert.executeBatch();
+            }
+            query = db.prepareStatement(
+                    "SELECT id, property_code, property_type, address, municipality, pre_vendido, sold "
+                  + "FROM properties WHERE sold = FALSE AND (LOWER(property_code) LIKE ? "
+                  + "OR LOWER(property_type) LIKE ? OR LOWER(municipality) LIKE ? OR LOWER(address) LIKE ?) "
+                  + "ORDER BY property_code LIMIT 50");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            db.close();
+        }
+    }
+
+    @Benchmark
+    public List<PropertyCatalogDto> searchSql(Sql s) throws SQLException {
+        String like = "%" + QUERIES[s.next++ % QUERIES.length] + "%";
+        for (int i = 1; i <= 4; i++) s.query.setString(i, like);
+        List<PropertyCatalogDto> out = new ArrayList<>();
+        try (ResultSet rs = s.query.executeQuery()) {
+            while (rs.next()) {
+                out.add(new PropertyCatalogDto(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getString(5), rs.getBoolean(6), rs.getBoolean(7)));
+            }
+        }
+        return out;
+    }
+
+    // ── Datos ────────────────────────────────────────────────
+    private static PropertyCatalogDto[] rows(int size) {
+        Random random = new Random(42);
+        PropertyCatalogDto[] rows = new PropertyCatalogDto[size];
+        for (int i = 0; i < size; i++) rows[i] = row(i + 1, random);
+        return rows;
+    }
+
+    private static PropertyCatalogDto row(long id, Random random) {
+        return new PropertyCatalogDto(id, String.format("P-%07d", id),
+                TYPES[random.nextInt(TYPES.length)],
+                STREETS[random.nextInt(STREETS.length)] + " " + (1 + random.nextInt(120)),
+                TOWNS[random.nextInt(TOWNS.length)],
+                random.nextInt(10) == 0, false);
+    }
+}
@@ -0,0 +1,115 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.web.dto.PropertyCatalogDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PropertyOptionsCacheTest {
+
+    private static final String[] TYPES  = { "Piso", "Chalet", "Local", "Lonja", "Ático" };
+    private static final String[] TOWNS  = { "Bilbao", "Getxo", "Barakaldo", "Leioa", "Durango", "Sopela" };
+    private static final String[] STREET = { "Gran Vía", "Calle Mayor", "Avenida Zugazarte", "Plaza Bidebarrieta" };
+    private static final String[] QUERIES = { "b", "bi", "bao", "gran via", "p-1", "p-10", "calle 1", "ati",
+            "piso getxo", "zu", "lonja sopela", "vía", "p-12 bilbao" };
+
+    // Los parches tienen que dar exactamente lo mismo que cargar de cero
+    @Test
+    void patchedSnapshotsMatchAFullRebuild() {
+        Random random = new Random(42);
+        Map<Long, PropertyCatalogDto> rows = new LinkedHashMap<>();
+        long nextId = 1;
+        for (; nextId <= 1500; nextId++) rows.put(nextId, row(nextId, random));
+
+        PropertyCatalogDto[] initial = rows.values().toArray(new PropertyCatalogDto[0]);
+        PropertyOptionsCache.Options options = new PropertyOptionsCache.Options(1, initial);
+
+        for (int round = 0; round < 60; round++) {
+            // Unas rondas quitan casi todo (compactación), otras cambian y añaden
+            boolean purge = round % 20 == 19;
+            List<Long> ids = new ArrayList<>();
+            List<PropertyCatalogDto> fresh = new ArrayList<>();
+            for (Long id : new ArrayList<>(rows.keySet())) {
+                double dice = random.nextDouble();
+                if (purge ? dice < 0.8 : dice < 0.02) {
+                    ids.add(id);
+                    rows.remove(id); // vendido o borrado
+                } else if (!purge && dice < 0.05) {
+                    ids.add(id);
+                    PropertyCatalogDto changed = row(id, random);
+                    rows.put(id, changed);
+                    fresh.add(changed);
+                }
+            }
+            for (int i = 0; i < random.nextInt(purge ? 5 : 60); i++, nextId++) {
+                PropertyCatalogDto added = row(nextId, random);
+                ids.add(nextId);
+                rows.put(nextId, added);
+                fresh.add(added);
+            }
+
+            options = options.patch(ids, fresh);
+            PropertyCatalogDto[] all = rows.values().toArray(new PropertyCatalogDto[0]);
+            PropertyOptionsCache.Options expected = new PropertyOptionsCache.Options(options.getVersion(), all);
+
+            assertEquals(expected.size(), options.size());
+            for (String q : QUERIES) {
+                assertEquals(ids(expected.search(q, 5_000)), ids(options.search(q, 5_000)), "ronda " + round + ": " + q);
+            }
+        }
+    }
+
+    // Con la BD caída se reintenta con espera, no en bucle; y nunca con más de 500 ids
+    @Test
+    void failedRefreshesBackOffInBoundedBatches() throws Exception {
+        PropertyRepository repo = mock(PropertyRepository.class);
+        when(repo.findCatalogOptions()).thenReturn(List.of());
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        when(repo.findCatalogOptionsByIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            batches.add(ids.size());
+            if (batches.size() == 1) throw new IllegalStateException("BD caída");
+            Random random = new Random(7);
+            return ids.stream().map(id -> row(id, random)).toList();
+        });
+
+        PropertyOptionsCache cache = new PropertyOptionsCache(repo);
+        try {
+            cache.get();
+            for (long id = 1; id <= 1200; id++) cache.changed(id);
+
+            for (int i = 0; i < 100 && cache.get().size() < 1200; i++) Thread.sleep(50);
+            assertEquals(1200, cache.get().size());
+            // el lote fallido + tres lotes (500, 500, 200) tras esperar ~1 s
+            assertEquals(4, batches.size(), () -> "lotes: " + batches);
+            assertTrue(batches.stream().allMatch(n -> n <= 500), () -> "lotes: " + batches);
+        } finally {
+            cache.shutdown();
+        }
+    }
+
+    private static PropertyCatalogDto row(long id, Random random) {
+        return new PropertyCatalogDto(id, "P-" + id,
+                TYPES[random.nextInt(TYPES.length)],
+                STREET[random.nextInt(STREET.length)] + " " + (1 + random.nextInt(40)),
+                TOWNS[random.nextInt(TOWNS.length)],
+                random.nextBoolean(), false);
+    }
+
+    private static List<Long> ids(List<PropertyCatalogDto> rows) {
+        return rows.stream().map(PropertyCatalogDto::getId).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.inmobiliaria.app.service;
+
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.repo.ClientEmailRepository;
+import com.inmobiliaria.app.repo.ClientPhoneRepository;
+import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.repo.ClientRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchIndexTest {
+
+    @TempDir Path dir;
+
+    // Más aciertos que parámetros admite MySQL en una sentencia (65.535): se cortan en MAX_HITS
+    @Test
+    void searchCapsTheHitsAndSaysSo() throws Exception {
+        int total = 70_000;
+        PropertyRepository properties = mock(PropertyRepository.class);
+        when(properties.findAllIds()).thenReturn(LongStream.rangeClosed(1, total).boxed().toList());
+        when(properties.findAllById(any())).thenAnswer(inv -> {
+            List<Property> batch = new ArrayList<>();
+            for (Long id : inv.<Collection<Long>>getArgument(0)) {
+                Property p = new Property();
+                p.setId(id);
+                p.setPropertyCode("P-" + id);
+                p.setMunicipality(id % 1000 == 0 ? "Bilbao" : "Getxo");
+                batch.add(p);
+            }
+            return batch;
+        });
+
+        SearchIndex index = new SearchIndex(mock(ClientRepository.class), mock(ClientPhoneRepository.class),
+                mock(ClientEmailRepository.class), properties, mock(ClientPropertyInteractionRepository.class),
+                dir.toString());
+        try {
+            index.rebuildOnStartup();
+            SearchIndex.Hits bilbao = index.search(SearchIndex.Kind.PROPERTY, "bilbao", SearchIndex.MUNICIPIO);
+            for (int i = 0; i < 600 && bilbao.ids().size() < total / 1000; i++) {
+                Thread.sleep(50);
+                bilbao = index.search(SearchIndex.Kind.PROPERTY, "bilbao", SearchIndex.MUNICIPIO);
+            }
+
+            assertEquals(total / 1000, bilbao.ids().size());
+            assertFalse(bilbao.truncated());
+
+            SearchIndex.Hits all = index.search(SearchIndex.Kind.PROPERTY, "p", SearchIndex.CODIGO);
+            assertEquals(SearchIndex.MAX_HITS, all.ids().size());
+            assertTrue(all.truncated());
+        } finally {
+            index.close();
+        }
+    }
+
+    // Con la BD caída no se pierde ni la reconstrucción ni un cambio: se reintentan y, mientras, está desfasado
+    @Test
+    void failuresAreRetriedAndReportedAsStale() throws Exception {
+        AtomicInteger down = new AtomicInteger(2); // fallan la reconstrucción y su primer reintento
+        List<Long> rows = new CopyOnWriteArrayList<>(List.of(1L));
+        PropertyRepository properties = mock(PropertyRepository.class);
+        when(properties.findAllIds()).thenAnswer(inv -> {
+            if (down.getAndDecrement() > 0) throw new IllegalStateException("BD caída");
+            return List.copyOf(rows);
+        });
+        when(properties.findAllById(any())).thenAnswer(inv -> {
+            if (down.getAndDecrement() > 0) throw new IllegalStateException("BD caída");
+            List<Property> batch = new ArrayList<>();
+            for (Long id : inv.<Collection<Long>>getArgument(0)) {
+                Property p = new Property();
+                p.setId(id);
+                p.setPropertyCode("P-" + id);
+                p.setMunicipality(id == 1 ? "Bilbao" : "Getxo");
+                batch.add(p);
+            }
+            return batch;
+        });
+
+        SearchIndex index = new SearchIndex(mock(ClientRepository.class), mock(ClientPhoneRepository.class),
+                mock(ClientEmailRepository.class), properties, mock(ClientPropertyInteractionRepository.class),
+                dir.toString());
+        try {
+            index.rebuildOnStartup();
+            for (int i = 0; i < 100 && !index.isStale(); i++) Thread.sleep(10);
+            assertTrue(index.isStale());
+            // Llega mientras la reconstrucción está pendiente: la recoge ella
+            rows.add(2L);
+            index.enqueue(SearchIndex.Kind.PROPERTY, 2L);
+
+            for (int i = 0; i < 100 && index.isStale(); i++) Thread.sleep(50);
+            assertFalse(index.isStale());
+            assertEquals(1, index.search(SearchIndex.Kind.PROPERTY, "bilbao", SearchIndex.MUNICIPIO).ids().size());
+            assertEquals(1, index.search(SearchIndex.Kind.PROPERTY, "getxo", SearchIndex.MUNICIPIO).ids().size());
+
+            // Un cambio suelto que falla se reintenta
+            down.set(1);
+            index.enqueue(SearchIndex.Kind.PROPERTY, 3L);
+            for (int i = 0; i < 100 && !index.isStale(); i++) Thread.sleep(10);
+            assertTrue(index.isStale());
+            for (int i = 0; i < 100 && index.isStale(); i++) Thread.sleep(50);
+            assertFalse(index.isStale());
+            assertEquals(2, index.search(SearchIndex.Kind.PROPERTY, "getxo", SearchIndex.MUNICIPIO).ids().size());
+        } finally {
+            index.close();
+        }
+    }
+}
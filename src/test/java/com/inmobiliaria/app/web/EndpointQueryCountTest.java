@@ -0,0 +1,251 @@
+package com.inmobiliaria.app.web;
+
+import com.inmobiliaria.app.SqlCounter;
+import com.inmobiliaria.app.domain.*;
+import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.repo.ClientRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.repo.VisitRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+/**
+ * Sentencias SQL por petición en las pantallas que pintan el comprador /
+ * pre-comprador de un inmueble (Property.soldClient y preVendidoClient son
+ * LAZY y open-in-view=false): si falta un fetch join, la plantilla lanza
+ * LazyInitializationException o el recuento crece con el número de filas.
+ * La ficha de cliente se comprueba también al volver a ella con errores de
+ * validación (editar y nueva interacción), que la recargan con ClientDetailLoader.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "test", roles = "ADMIN")
+class EndpointQueryCountTest {
+
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired MockMvc mvc;
+    @Autowired ClientRepository clientRepository;
+    @Autowired PropertyRepository propertyRepository;
+    @Autowired ClientPropertyInteractionRepository interactionRepository;
+    @Autowired VisitRepository visitRepository;
+
+    @Test
+    void clientDetailRunsAFixedNumberOfQueries() throws Exception {
+        Client buyer = fixture(3);
+        int few = count("/clientes/" + buyer.getId());
+
+        addInteractions(buyer, 10);
+        assertEquals(few, count("/clientes/" + buyer.getId()));
+        // cliente + teléfonos, emails, interacciones, visitas
+        assertEquals(4, few);
+    }
+
+    @Test
+    void invalidInteractionRendersTheClientDetailWithTheSameQueries() throws Exception {
+        Client buyer = fixture(3);
+        // Sin propertyCode: vuelve a la ficha con el error
+        int few = countDetail(post("/clientes/" + buyer.getId() + "/interacciones").with(csrf()));
+
+        addInteractions(buyer, 10);
+        assertEquals(few, countDetail(post("/clientes/" + buyer.getId() + "/interacciones").with(csrf())));
+        assertEquals(4, few);
+    }
+
+    @Test
+    void invalidEditRendersTheClientDetailWithTheSameQueries() throws Exception {
+        Client buyer = fixture(3);
+        int few = countDetail(invalidEdit(buyer));
+
+        addInteractions(buyer, 10);
+        assertEquals(few, countDetail(invalidEdit(buyer)));
+        // la ficha y la comprobación de que el teléfono no es de otro cliente
+        assertEquals(5, few);
+    }
+
+    @Test
+    void interesadosRunsAFixedNumberOfQueries() throws Exception {
+        fixture(3);
+        int few = count("/interesados");
+
+        fixture(10);
+        assertEquals(few, count("/interesados"));
+        assertEquals(3, few);
+    }
+
+    @Test
+    void inmueblesRunsAFixedNumberOfQueries() throws Exception {
+        fixture(3);
+        int few = count("/inmuebles");
+
+        fixture(10);
+        assertEquals(few, count("/inmuebles"));
+        assertEquals(2, few);
+    }
+
+    @Test
+    void apiInmueblesRunsAFixedNumberOfQueries() throws Exception {
+        fixture(3);
+        int few = count("/api/inmuebles");
+
+        fixture(10);
+        assertEquals(few, count("/api/inmuebles"));
+        assertEquals(1, few);
+    }
+
+    // El buscador de inmuebles de los combos sale de PropertyOptionsCache, sin BD
+    @Test
+    void catalogSearchDoesNotTouchTheDatabase() throws Exception {
+        fixture(3);
+        count("/api/catalog/search?q=qc"); // la primera puede cargar la foto
+        assertEquals(0, count("/api/catalog/search?q=qc"));
+
+        fixture(10);
+        assertEquals(0, count("/api/catalog/search?q=qc"));
+    }
+
+    @Test
+    void visitDropdownsRunAFixedNumberOfQueries() throws Exception {
+        Property p = property();
+        interestedIn(p, 3);
+        int few = count("/visitas/clientes-por-inmueble?propertyId=" + p.getId());
+
+        interestedIn(p, 10);
+        assertEquals(few, count("/visitas/clientes-por-inmueble?propertyId=" + p.getId()));
+        assertEquals(1, few);
+    }
+
+    @Test
+    void scheduledVisitsRunAFixedNumberOfQueries() throws Exception {
+        fixture(3);
+        int few = count("/visitas/programadas");
+
+        fixture(10);
+        assertEquals(few, count("/visitas/programadas"));
+        // visitas + teléfonos y emails de sus clientes
+        assertEquals(3, few);
+    }
+
+    // ── Helpers ───────────────────────────────────────────────
+    private int count(String url) throws Exception {
+        SqlCounter.reset();
+        mvc.perform(get(url)).andExpect(status().isOk());
+        return SqlCounter.count();
+    }
+
+    private int countDetail(RequestBuilder request) throws Exception {
+        SqlCounter.reset();
+        mvc.perform(request).andExpect(status().isOk()).andExpect(view().name("client_detail"));
+        return SqlCounter.count();
+    }
+
+    // Nombre vacío: error de validación, con el teléfono del propio cliente
+    private RequestBuilder invalidEdit(Client c) {
+        return post("/clientes/" + c.getId() + "/editar")
+                .param("id", String.valueOf(c.getId()))
+                .param("fullName", "")
+                .param("clientType", ClientType.PARTICULAR.name())
+                .param("phone1", c.getPhones().get(0).getPhoneNumber())
+                .with(csrf());
+    }
+
+    // Un comprador con un inmueble vendido, otro pre-vendido (con visita) y n interacciones y visitas más
+    private Client fixture(int n) {
+        Client buyer = client("Comprador");
+        Property sold = property();
+        sold.setSold(true);
+        sold.setSoldClient(buyer);
+        propertyRepository.save(sold);
+        Property reserved = property();
+        reserved.setPreVendido(true);
+        reserved.setPreVendidoClient(buyer);
+        propertyRepository.save(reserved);
+
+        interaction(buyer, sold);
+        interaction(buyer, reserved);
+        interaction(client("Interesado"), reserved);
+        visit(buyer, reserved);
+        addInteractions(buyer, n);
+        return buyer;
+    }
+
+    private void addInteractions(Client c, int n) {
+        for (int i = 0; i < n; i++) {
+            Property p = property();
+            interaction(c, p);
+            visit(c, p);
+        }
+    }
+
+    // n clientes más interesados en p, cada uno con su visita
+    private void interestedIn(Property p, int n) {
+        for (int i = 0; i < n; i++) {
+            Client c = client("Interesado");
+            interaction(c, p);
+            visit(c, p);
+        }
+    }
+
+    private Client client(String name) {
+        int seq = SEQ.incrementAndGet();
+        Client c = new Client();
+        c.setClientType(ClientType.PARTICULAR);
+        c.setFullName(name + " " + seq);
+        ClientPhone phone = new ClientPhone();
+        phone.setClient(c);
+        phone.setPhoneNumber("6" + String.format("%08d", seq));
+        phone.setPosition(1);
+        c.getPhones().add(phone);
+        ClientEmail email = new ClientEmail();
+        email.setClient(c);
+        email.setEmail("c" + seq + "@example.com");
+        email.setPosition(1);
+        c.getEmails().add(email);
+        return clientRepository.save(c);
+    }
+
+    private Property property() {
+        Property p = new Property();
+        p.setPropertyCode("QC-" + SEQ.incrementAndGet());
+        p.setPropertyType("Piso");
+        p.setMunicipality("Bilbao");
+        return propertyRepository.save(p);
+    }
+
+    private void interaction(Client c, Property p) {
+        ClientPropertyInteraction it = new ClientPropertyInteraction();
+        it.setClient(c);
+        it.setProperty(p);
+        it.setContactDate(LocalDate.now());
+        it.setChannel(ContactChannel.OTRO);
+        it.setStatus(InterestStatus.GRIS_SIN_CONTACTO);
+        interactionRepository.save(it);
+    }
+
+    private void visit(Client c, Property p) {
+        Visit v = new Visit();
+        v.setClient(c);
+        v.setProperty(p);
+        v.setVisitAt(LocalDateTime.now().plusDays(1));
+        v.setStatus(VisitStatus.PROGRAMADA);
+        visitRepository.save(v);
+    }
+}
@@ -0,0 +1,115 @@
+package com.inmobiliaria.app.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Subida por trozos tal como la hace property_detail.js: el id del inmueble
+ * sale del data-property-id del body y el token CSRF de las metas _csrf /
+ * _csrf_header de la ficha, sin el csrf() de spring-security-test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "test", roles = "ADMIN")
+class MediaUploadFlowTest {
+
+    @Autowired MockMvc mvc;
+    @Autowired PropertyRepository propertyRepository;
+
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    void chunkedUploadUsesThePageContract() throws Exception {
+        Property p = new Property();
+        p.setPropertyCode("UP-1");
+        p.setPropertyType("Piso");
+        p.setMunicipality("Bilbao");
+        p = propertyRepository.save(p);
+
+        // Lo que lee el JS
+        String js = new ClassPathResource("static/js/property_detail.js").getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(js.contains("document.body.dataset.propertyId"));
+        assertTrue(js.contains("meta[name=\"_csrf\"]") && js.contains("meta[name=\"_csrf_header\"]"));
+        assertTrue(js.contains("'/inmuebles/' + propertyId + '/media/uploads'"));
+        assertTrue(js.contains("'/inmuebles/' + propertyId + '/media/jobs'"));
+
+        // Lo que pinta la ficha
+        MvcResult page = mvc.perform(get("/inmuebles/" + p.getId())).andExpect(status().isOk()).andReturn();
+        String html       = page.getResponse().getContentAsString();
+        String propertyId = attr(html, "<body[^>]*\\sdata-property-id=\"([^\"]*)\"");
+        String token      = attr(html, "<meta name=\"_csrf\"\\s+content=\"([^\"]*)\"");
+        String header     = attr(html, "<meta name=\"_csrf_header\"\\s+content=\"([^\"]*)\"");
+        // Cookies y sesión, como el navegador: el csrf() de otras pruebas del
+        // mismo contexto cambia el repositorio de tokens de cookie a sesión
+        Cookie[] cookies  = page.getResponse().getCookies();
+        MockHttpSession session = (MockHttpSession) page.getRequest().getSession(false);
+        assertEquals(String.valueOf(p.getId()), propertyId);
+
+        String uploads = "/inmuebles/" + propertyId + "/media/uploads";
+        byte[] bytes   = "fotografía de prueba".getBytes(StandardCharsets.UTF_8);
+
+        JsonNode opened = call(post(uploads)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .param("name", "foto.jpg").param("type", "image/jpeg").param("size", String.valueOf(bytes.length)),
+                header, token, cookies, session, 201);
+        String url = uploads + "/" + opened.get("uploadId").asLong();
+        assertEquals(0, opened.get("offset").asLong());
+
+        JsonNode sent = call(put(url + "?offset=0")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM).content(bytes),
+                header, token, cookies, session, 200);
+        assertEquals(bytes.length, sent.get("offset").asLong());
+
+        JsonNode done = call(post(url + "/commit"), header, token, cookies, session, 202);
+        assertEquals("PENDIENTE", done.get("status").asText());
+
+        // Sondeo de pollJobs()
+        JsonNode jobs = json.readTree(mvc.perform(get("/inmuebles/" + propertyId + "/media/jobs")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertEquals("foto.jpg", jobs.get(0).get("originalName").asText());
+    }
+
+    private JsonNode call(MockHttpServletRequestBuilder request, String header, String token,
+                          Cookie[] cookies, MockHttpSession session, int expected) throws Exception {
+        request.header(header, token).accept(MediaType.APPLICATION_JSON);
+        if (cookies.length > 0) request.cookie(cookies);
+        if (session != null) request.session(session);
+        String body = mvc.perform(request).andExpect(status().is(expected))
+                .andReturn().getResponse().getContentAsString();
+        return json.readTree(body);
+    }
+
+    private static String attr(String html, String regex) {
+        Matcher m = Pattern.compile(regex).matcher(html);
+        assertTrue(m.find(), () -> "no aparece en la ficha: " + regex);
+        return m.group(1);
+    }
+}
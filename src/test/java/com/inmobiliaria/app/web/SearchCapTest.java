@@ -0,0 +1,137 @@
+package com.inmobiliaria.app.web;
+
+import com.inmobiliaria.app.SqlCounter;
+import com.inmobiliaria.app.domain.Client;
+import com.inmobiliaria.app.domain.ClientPropertyInteraction;
+import com.inmobiliaria.app.domain.ClientType;
+import com.inmobiliaria.app.domain.ContactChannel;
+import com.inmobiliaria.app.domain.InterestStatus;
+import com.inmobiliaria.app.domain.Property;
+import com.inmobiliaria.app.repo.ClientPropertyInteractionRepository;
+import com.inmobiliaria.app.repo.ClientRepository;
+import com.inmobiliaria.app.repo.PropertyRepository;
+import com.inmobiliaria.app.service.SearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Búsquedas de pocas letras que casan con más de SearchIndex.MAX_HITS filas:
+ * la página sale (sin 500 por exceso de parámetros), avisa de que la lista
+ * está incompleta y ninguna sentencia lleva más parámetros que el tope
+ * (rellenado a potencia de 2 por in_clause_parameter_padding). En /interesados
+ * hay tres listas (interacciones, clientes, inmuebles) y el CSV se niega.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "test", roles = "ADMIN")
+class SearchCapTest {
+
+    // Sin el tope, el IN llevaría MANY parámetros (> MAX_BINDS)
+    private static final int MANY      = 3 * SearchIndex.MAX_HITS;
+    private static final int MAX_BINDS = 2 * SearchIndex.MAX_HITS;
+
+    @Autowired MockMvc mvc;
+    @Autowired ClientRepository clientRepository;
+    @Autowired PropertyRepository propertyRepository;
+    @Autowired ClientPropertyInteractionRepository interactionRepository;
+    @Autowired SearchIndex searchIndex;
+
+    @Test
+    void clientesSaysTheSearchWasCut() throws Exception {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            Client c = new Client();
+            c.setClientType(ClientType.PARTICULAR);
+            c.setFullName("Zarateguí " + i);
+            clients.add(c);
+        }
+        clientRepository.saveAll(clients);
+        awaitIndexed(() -> searchIndex.search(SearchIndex.Kind.CLIENT, "zarategui", SearchIndex.NOMBRE));
+
+        SqlCounter.reset();
+        mvc.perform(get("/clientes").param("q", "zar"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("class=\"search-capped\"")));
+        assertTrue(SqlCounter.maxParameters() <= MAX_BINDS, () -> "parámetros: " + SqlCounter.maxParameters());
+    }
+
+    @Test
+    void inmueblesSaysTheSearchWasCut() throws Exception {
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            Property p = new Property();
+            p.setPropertyCode("CAP-" + i);
+            p.setPropertyType("Lonja");
+            p.setMunicipality("Sopela");
+            properties.add(p);
+        }
+        propertyRepository.saveAll(properties);
+        awaitIndexed(() -> searchIndex.search(SearchIndex.Kind.PROPERTY, "sopela", SearchIndex.MUNICIPIO));
+
+        SqlCounter.reset();
+        mvc.perform(get("/inmuebles").param("q", "so"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("class=\"search-capped\"")));
+        assertTrue(SqlCounter.maxParameters() <= MAX_BINDS, () -> "parámetros: " + SqlCounter.maxParameters());
+    }
+
+    @Test
+    void interesadosSaysTheSearchWasCutAndRefusesTheExport() throws Exception {
+        Client c = new Client();
+        c.setClientType(ClientType.PARTICULAR);
+        c.setFullName("Ugarte Interesado");
+        c = clientRepository.save(c);
+        Property p = new Property();
+        p.setPropertyCode("INT-1");
+        p.setPropertyType("Piso");
+        p.setMunicipality("Leioa");
+        p = propertyRepository.save(p);
+
+        List<ClientPropertyInteraction> interactions = new ArrayList<>();
+        for (int i = 0; i < MANY; i++) {
+            ClientPropertyInteraction it = new ClientPropertyInteraction();
+            it.setClient(c);
+            it.setProperty(p);
+            it.setContactDate(LocalDate.now());
+            it.setChannel(ContactChannel.OTRO);
+            it.setStatus(InterestStatus.GRIS_SIN_CONTACTO);
+            it.setComments("Quiere visitarlo " + i);
+            interactions.add(it);
+        }
+        interactionRepository.saveAll(interactions);
+        awaitIndexed(() -> searchIndex.search(SearchIndex.Kind.INTERACTION, "quiere", SearchIndex.COMENTARIOS));
+
+        SqlCounter.reset();
+        mvc.perform(get("/interesados").param("q", "qu").param("searchField", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("class=\"search-capped\"")));
+        // Tres listas, cada una rellenada como mucho a 2 × MAX_HITS
+        assertTrue(SqlCounter.maxParameters() <= 3 * MAX_BINDS, () -> "parámetros: " + SqlCounter.maxParameters());
+
+        mvc.perform(get("/interesados/export.csv").param("q", "qu").param("searchField", "ALL"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // El índice se actualiza tras el commit, en su propio hilo
+    private static void awaitIndexed(Supplier<SearchIndex.Hits> search) throws InterruptedException {
+        for (int i = 0; i < 600 && !search.get().truncated(); i++) Thread.sleep(50);
+        assertTrue(search.get().truncated(), "el índice no recogió las filas");
+    }
+}